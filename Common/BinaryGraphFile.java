@@ -0,0 +1,128 @@
+package Common;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Compact binary form of the graph files, little-endian throughout:
+//
+//   int magic ('WGRB'), int version, int V, int E,
+//   int[E] u, int[E] v, int[E] w
+//
+// Loading memory-maps the file and bulk-copies each array out of the mapping,
+// so there is nothing to parse and start-up costs about one memcpy per array.
+// Run as a program to convert a text graph: java Common.BinaryGraphFile in out
+public class BinaryGraphFile {
+    public static final int MAGIC = 0x57475242; // "WGRB"
+    public static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 16;
+    private static final int CHUNK_INTS = 1 << 28; // Ints per mapping, 1 GB
+
+    // Method to check whether a file starts with the binary magic number
+    public static boolean isBinary(String graphFile) throws IOException {
+        try (FileChannel ch = FileChannel.open(Paths.get(graphFile), StandardOpenOption.READ)) {
+            if (ch.size() < HEADER_BYTES) {
+                return false;
+            }
+            return ch.map(FileChannel.MapMode.READ_ONLY, 0, 4).order(ByteOrder.LITTLE_ENDIAN).getInt() == MAGIC;
+        }
+    }
+
+    // Method to load a binary graph file into an EdgeList
+    public static EdgeList load(String graphFile) throws IOException {
+        long start = System.nanoTime();
+
+        try (FileChannel ch = FileChannel.open(Paths.get(graphFile), StandardOpenOption.READ)) {
+            if (ch.size() < HEADER_BYTES) {
+                throw new IOException(graphFile + ": too short for a binary graph header");
+            }
+            IntBuffer head = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            int magic = head.get(), version = head.get(), V = head.get(), E = head.get();
+
+            if (magic != MAGIC) {
+                throw new IOException(graphFile + ": not a binary graph file");
+            }
+            if (version != VERSION) {
+                throw new IOException(graphFile + ": unsupported binary graph version " + version);
+            }
+            if (V < 0 || E < 0 || ch.size() != HEADER_BYTES + 12L * E) {
+                throw new IOException(graphFile + ": header says " + V + " vertices and " + E
+                        + " edges but the file is " + ch.size() + " bytes");
+            }
+
+            int[] u = new int[E], v = new int[E], w = new int[E];
+            long pos = HEADER_BYTES;
+            pos = readInts(ch, pos, u);
+            pos = readInts(ch, pos, v);
+            readInts(ch, pos, w);
+
+            for (int e = 0; e < E; ++e) {
+                if (u[e] < 1 || u[e] > V || v[e] < 1 || v[e] > V) {
+                    throw new IOException(graphFile + ": edge " + (e + 1) + " joins " + u[e] + " and " + v[e]
+                            + " but vertices run from 1 to " + V);
+                }
+            }
+
+            return new EdgeList(V, E, u, v, w, System.nanoTime() - start);
+        }
+    }
+
+    // Method to write an EdgeList in binary form
+    public static void write(EdgeList g, String graphFile) throws IOException {
+        try (FileChannel ch = FileChannel.open(Paths.get(graphFile), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ch.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                    .asIntBuffer().put(MAGIC).put(VERSION).put(g.V).put(g.E);
+
+            long pos = HEADER_BYTES;
+            pos = writeInts(ch, pos, g.u, g.E);
+            pos = writeInts(ch, pos, g.v, g.E);
+            writeInts(ch, pos, g.w, g.E);
+        }
+    }
+
+    // Method to copy dst.length ints out of the file starting at byte pos,
+    // returning the position just past them
+    private static long readInts(FileChannel ch, long pos, int[] dst) throws IOException {
+        for (int off = 0; off < dst.length; off += CHUNK_INTS) {
+            int n = Math.min(CHUNK_INTS, dst.length - off);
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, pos, 4L * n);
+            map.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(dst, off, n);
+            pos += 4L * n;
+        }
+        return pos;
+    }
+
+    // Method to copy the first n ints of src into the file starting at byte
+    // pos, returning the position just past them
+    private static long writeInts(FileChannel ch, long pos, int[] src, int n) throws IOException {
+        for (int off = 0; off < n; off += CHUNK_INTS) {
+            int len = Math.min(CHUNK_INTS, n - off);
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_WRITE, pos, 4L * len);
+            map.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().put(src, off, len);
+            pos += 4L * len;
+        }
+        return pos;
+    }
+
+    // Converter from the text format: java Common.BinaryGraphFile in.txt out.bin
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java Common.BinaryGraphFile <text graph> <binary graph>");
+            System.exit(2);
+        }
+
+        EdgeList g = GraphLoader.load(args[0]);
+        System.out.println(g.loadSummary());
+
+        long start = System.nanoTime();
+        write(g, args[1]);
+        System.out.printf("Wrote %s in %.1f ms%n", args[1], (System.nanoTime() - start) / 1e6);
+    }
+}
@@ -0,0 +1,102 @@
+package Common;
+
+// Binary heap with position tracking, the heap the programs originally shipped
+// with. a[1] is the root and a[k] has children a[2k] and a[2k + 1].
+public class BinaryHeap implements IndexedHeap {
+    private int[] a; // Heap array
+    private int[] hPos; // hPos[a[k]] == k, 0 when not in the heap
+    private int[] key; // key[v] = priority of v
+    private int N; // Current size of the heap
+
+    // Constructor taking the largest entry that will be stored and the key array
+    public BinaryHeap(int maxSize, int[] _key) {
+        N = 0;
+        a = new int[maxSize + 1];
+        hPos = new int[maxSize + 1];
+        key = _key;
+    }
+
+    public boolean isEmpty() {
+        return N == 0;
+    }
+
+    public int size() {
+        return N;
+    }
+
+    public boolean contains(int v) {
+        return hPos[v] != 0;
+    }
+
+    // Method to load every entry 1..n at once and heapify from the bottom up,
+    // which is O(n) rather than the O(n log n) of n inserts
+    public void insertAll(int n) {
+        N = n;
+        for (int i = 1; i <= n; ++i) {
+            a[i] = i;
+            hPos[i] = i;
+        }
+        for (int i = n / 2; i > 0; --i) {
+            siftDown(i);
+        }
+    }
+
+    private void siftUp(int k) {
+        int v = a[k];
+        while (k > 1 && key[v] < key[a[k / 2]]) {
+            hPos[a[k / 2]] = k;
+            a[k] = a[k / 2];
+            k = k / 2;
+        }
+        a[k] = v;
+        hPos[v] = k;
+    }
+
+    private void siftDown(int k) {
+        int v, j;
+        v = a[k];
+        while (k * 2 <= N) {
+            j = k * 2;
+            if (j < N && key[a[j]] > key[a[j + 1]]) {
+                ++j;
+            }
+            if (key[v] <= key[a[j]]) {
+                break;
+            }
+            hPos[a[j]] = k;
+            a[k] = a[j];
+            k = j;
+        }
+        hPos[v] = k;
+        a[k] = v;
+    }
+
+    public void insert(int v) {
+        a[++N] = v;
+        siftUp(N);
+    }
+
+    public void decreaseKey(int v) {
+        siftUp(hPos[v]);
+    }
+
+    public int peek() {
+        return N == 0 ? 0 : a[1];
+    }
+
+    public int remove() {
+        int v = a[1];
+        a[1] = a[N--];
+        siftDown(1);
+        a[N + 1] = 0;
+        hPos[v] = 0; // Cleared last, as siftDown re-marks v when it was the only entry
+        return v;
+    }
+
+    public void clear() {
+        for (int k = 1; k <= N; ++k) {
+            hPos[a[k]] = 0;
+        }
+        N = 0;
+    }
+}
@@ -0,0 +1,114 @@
+package Common;
+
+// Bucket queue (Dial's algorithm) for small non-negative integer keys. Entries
+// sit in span + 1 circular buckets of doubly linked lists, so insert and
+// decreaseKey are O(1) and remove scans at most span empty buckets.
+// Valid whenever all queued keys lie within [min, min + span]: in Dijkstra span
+// is the largest edge weight, and in Prim every key is an edge weight itself.
+public class BucketQueue implements IndexedHeap {
+    private int[] head; // head[b] = first entry in bucket b, 0 if empty
+    private int[] next; // Next entry in the same bucket, 0 at the end
+    private int[] prev; // Previous entry in the same bucket, 0 at the front
+    private int[] filed; // Key that v was filed under while it is queued
+    private boolean[] queued; // queued[v] is true while v is in the heap
+    private int[] key; // key[v] = priority of v
+    private int B; // Number of buckets
+    private int cur; // No queued key is smaller than cur
+    private int N; // Current size of the queue
+
+    // Constructor taking the largest entry, the key array and the widest gap
+    // there can be between the smallest and largest queued keys
+    public BucketQueue(int maxSize, int[] _key, int span) {
+        if (span < 0) {
+            throw new IllegalArgumentException("bucket queue needs non-negative keys, span " + span);
+        }
+        B = span + 1;
+        head = new int[B];
+        next = new int[maxSize + 1];
+        prev = new int[maxSize + 1];
+        filed = new int[maxSize + 1];
+        queued = new boolean[maxSize + 1];
+        key = _key;
+        N = 0;
+    }
+
+    public boolean isEmpty() {
+        return N == 0;
+    }
+
+    public int size() {
+        return N;
+    }
+
+    public boolean contains(int v) {
+        return queued[v];
+    }
+
+    private void link(int v) {
+        int k = key[v];
+        if (N == 0 || k < cur) {
+            cur = k;
+        } else if (k - cur >= B) {
+            throw new IllegalStateException("key " + k + " is outside bucket range " + cur + ".." + (cur + B - 1));
+        }
+
+        int b = Math.floorMod(k, B);
+        filed[v] = k;
+        prev[v] = 0;
+        next[v] = head[b];
+        if (head[b] != 0) {
+            prev[head[b]] = v;
+        }
+        head[b] = v;
+        ++N;
+    }
+
+    private void unlink(int v) {
+        if (prev[v] != 0) {
+            next[prev[v]] = next[v];
+        } else {
+            head[Math.floorMod(filed[v], B)] = next[v];
+        }
+        if (next[v] != 0) {
+            prev[next[v]] = prev[v];
+        }
+        --N;
+    }
+
+    public void insert(int v) {
+        link(v);
+        queued[v] = true;
+    }
+
+    public void decreaseKey(int v) {
+        unlink(v);
+        link(v);
+    }
+
+    public int peek() {
+        if (N == 0) {
+            return 0;
+        }
+        while (head[Math.floorMod(cur, B)] == 0) {
+            ++cur;
+        }
+        return head[Math.floorMod(cur, B)];
+    }
+
+    public int remove() {
+        int v = peek();
+        unlink(v);
+        queued[v] = false;
+        return v;
+    }
+
+    public void clear() {
+        for (int b = 0; b < B; ++b) {
+            for (int v = head[b]; v != 0; v = next[v]) {
+                queued[v] = false;
+            }
+            head[b] = 0;
+        }
+        N = 0;
+    }
+}
@@ -0,0 +1,112 @@
+package Common;
+
+// d-ary heap with position tracking. A wider node makes the tree shallower and
+// keeps all children of a node in one or two cache lines, so with d = 4 a
+// sift-down touches far fewer lines than the binary heap, while decreaseKey
+// (a sift-up) gets cheaper too.
+// a[0] is the root and a[k] has children a[d * k + 1] .. a[d * k + d].
+public class DaryHeap implements IndexedHeap {
+    private int d; // Arity
+    private int[] a; // Heap array
+    private int[] hPos; // hPos[a[k]] == k + 1, 0 when not in the heap
+    private int[] key; // key[v] = priority of v
+    private int N; // Current size of the heap
+
+    // Constructor taking the arity, the largest entry and the key array
+    public DaryHeap(int _d, int maxSize, int[] _key) {
+        if (_d < 2) {
+            throw new IllegalArgumentException("heap arity must be at least 2: " + _d);
+        }
+        d = _d;
+        N = 0;
+        a = new int[maxSize];
+        hPos = new int[maxSize + 1];
+        key = _key;
+    }
+
+    public boolean isEmpty() {
+        return N == 0;
+    }
+
+    public int size() {
+        return N;
+    }
+
+    public boolean contains(int v) {
+        return hPos[v] != 0;
+    }
+
+    private void siftUp(int k) {
+        int v = a[k];
+        int kv = key[v];
+        while (k > 0) {
+            int p = (k - 1) / d;
+            if (kv >= key[a[p]]) {
+                break;
+            }
+            a[k] = a[p];
+            hPos[a[k]] = k + 1;
+            k = p;
+        }
+        a[k] = v;
+        hPos[v] = k + 1;
+    }
+
+    private void siftDown(int k) {
+        int v = a[k];
+        int kv = key[v];
+        while (true) {
+            int first = d * k + 1;
+            if (first >= N) {
+                break;
+            }
+
+            // Finding the smallest of up to d children
+            int last = Math.min(first + d, N);
+            int j = first;
+            for (int c = first + 1; c < last; ++c) {
+                if (key[a[c]] < key[a[j]]) {
+                    j = c;
+                }
+            }
+            if (kv <= key[a[j]]) {
+                break;
+            }
+            a[k] = a[j];
+            hPos[a[k]] = k + 1;
+            k = j;
+        }
+        a[k] = v;
+        hPos[v] = k + 1;
+    }
+
+    public void insert(int v) {
+        a[N] = v;
+        siftUp(N++);
+    }
+
+    public void decreaseKey(int v) {
+        siftUp(hPos[v] - 1);
+    }
+
+    public int peek() {
+        return N == 0 ? 0 : a[0];
+    }
+
+    public int remove() {
+        int v = a[0];
+        a[0] = a[--N];
+        if (N > 0) {
+            siftDown(0);
+        }
+        hPos[v] = 0;
+        return v;
+    }
+
+    public void clear() {
+        for (int k = 0; k < N; ++k) {
+            hPos[a[k]] = 0;
+        }
+        N = 0;
+    }
+}
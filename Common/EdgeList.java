@@ -0,0 +1,33 @@
+package Common;
+
+// A graph as loaded from disk: V vertices numbered 1..V and E undirected edges
+// held in parallel primitive arrays, edge e joining u[e] and v[e] with weight
+// w[e] for 0 <= e < E. The programs build their own structures from this.
+public class EdgeList {
+    public final int V, E; // Number of vertices and edges
+    public final int[] u, v, w; // Edge endpoints and weights
+    public final int maxWgt; // Heaviest edge weight, 0 for an empty graph
+    public final long loadNanos; // Time taken to load, for reporting
+
+    public EdgeList(int _V, int _E, int[] _u, int[] _v, int[] _w, long _loadNanos) {
+        V = _V;
+        E = _E;
+        u = _u;
+        v = _v;
+        w = _w;
+        loadNanos = _loadNanos;
+
+        int max = 0;
+        for (int e = 0; e < E; ++e) {
+            max = Math.max(max, w[e]);
+        }
+        maxWgt = max;
+    }
+
+    // Method to describe the load time and throughput in one line
+    public String loadSummary() {
+        double secs = loadNanos / 1e9;
+        return String.format("Loaded %d vertices, %d edges in %.1f ms (%.2f M edges/s)",
+                V, E, secs * 1e3, secs > 0 ? E / secs / 1e6 : 0.0);
+    }
+}
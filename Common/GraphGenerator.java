@@ -0,0 +1,418 @@
+package Common;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+// Synthetic graphs for load testing, in the same EdgeList the loaders return:
+//   gnm       - G(n, m): m edges between uniformly random vertices
+//   grid      - rows x cols 4-neighbour grid, shaped like a road network
+//   rmat      - R-MAT power-law graph on 2^scale vertices (Graph500 odds)
+//   geometric - n random points in the unit square, joined when closer than
+//               the radius giving the requested average degree
+// Edges are made in blocks of BLOCK, each with its own random stream seeded
+// from the seed and the block number, so the threads can fill blocks in any
+// order and the same seed always gives the same graph. Weights are uniform in
+// 1..maxWgt, except for geometric graphs where they grow with edge length.
+// grid and geometric also keep the vertex coordinates, which can be written
+// in the format SPT's Coordinates reads for the A* heuristic.
+//
+// Run as a program, e.g.
+//   java Common.GraphGenerator --model=rmat --scale=20 --m=16000000 --out=rmat20.bin
+// writing binary when the name ends in .bin (or --format=binary), else text.
+public class GraphGenerator {
+    private static final int BLOCK = 1 << 16; // Edges per block
+    private static final int GROUP = 64; // Blocks formatted at once when writing text
+
+    private long seed;
+    private int maxWgt;
+    private ForkJoinPool pool;
+    private double[] x, y; // Coordinates of the last grid or geometric graph
+
+    public GraphGenerator(long _seed, int _maxWgt, ForkJoinPool _pool) {
+        if (_maxWgt < 1) {
+            throw new IllegalArgumentException("maximum weight must be at least 1, got " + _maxWgt);
+        }
+        seed = _seed;
+        maxWgt = _maxWgt;
+        pool = _pool;
+    }
+
+    // Method to make a G(n, m) random graph, self loops excluded
+    public EdgeList gnm(int n, int m) {
+        if (n < 2 && m > 0) {
+            throw new IllegalArgumentException("G(n, m) needs at least 2 vertices for any edges");
+        }
+        long start = System.nanoTime();
+        int[] u = new int[m], v = new int[m], w = new int[m];
+        x = y = null;
+
+        forEachBlock(m, b -> {
+            SplittableRandom rnd = random(b);
+            for (int e = b * BLOCK, end = Math.min(m, e + BLOCK); e < end; e++) {
+                u[e] = 1 + rnd.nextInt(n);
+                int other = 1 + rnd.nextInt(n - 1);
+                v[e] = (other >= u[e]) ? other + 1 : other;
+                w[e] = 1 + rnd.nextInt(maxWgt);
+            }
+        });
+        return new EdgeList(n, m, u, v, w, System.nanoTime() - start);
+    }
+
+    // Method to make a rows x cols grid; edge e is worked out from its index,
+    // horizontal edges first, so no block depends on another
+    public EdgeList grid(int rows, int cols) {
+        long start = System.nanoTime();
+        int horizontal = rows * (cols - 1);
+        int E = horizontal + (rows - 1) * cols;
+        int[] u = new int[E], v = new int[E], w = new int[E];
+
+        forEachBlock(E, b -> {
+            SplittableRandom rnd = random(b);
+            for (int e = b * BLOCK, end = Math.min(E, e + BLOCK); e < end; e++) {
+                if (e < horizontal) {
+                    int r = e / (cols - 1), c = e % (cols - 1);
+                    u[e] = r * cols + c + 1;
+                    v[e] = u[e] + 1;
+                } else {
+                    u[e] = e - horizontal + 1;
+                    v[e] = u[e] + cols;
+                }
+                w[e] = 1 + rnd.nextInt(maxWgt);
+            }
+        });
+
+        int V = rows * cols;
+        x = new double[V + 1];
+        y = new double[V + 1];
+        for (int i = 0; i < V; i++) {
+            x[i + 1] = i % cols;
+            y[i + 1] = i / cols;
+        }
+        return new EdgeList(V, E, u, v, w, System.nanoTime() - start);
+    }
+
+    // Method to make an R-MAT graph on 2^scale vertices with m edges: each
+    // edge picks a quadrant of the adjacency matrix scale times, with odds
+    // 0.57, 0.19, 0.19, 0.05, giving a skewed degree distribution. Vertex
+    // numbers are scrambled so the high degree vertices are not all at the
+    // start.
+    public EdgeList rmat(int scale, int m) {
+        if (scale < 1 || scale > 30) {
+            throw new IllegalArgumentException("R-MAT scale must be 1..30, got " + scale);
+        }
+        long start = System.nanoTime();
+        int mask = (1 << scale) - 1;
+        int[] u = new int[m], v = new int[m], w = new int[m];
+        x = y = null;
+
+        forEachBlock(m, b -> {
+            SplittableRandom rnd = random(b);
+            for (int e = b * BLOCK, end = Math.min(m, e + BLOCK); e < end; e++) {
+                int a, c;
+                do {
+                    a = 0;
+                    c = 0;
+                    for (int bit = 0; bit < scale; bit++) {
+                        double p = rnd.nextDouble();
+                        if (p >= 0.57) {
+                            if (p < 0.76) {
+                                c |= 1 << bit;
+                            } else if (p < 0.95) {
+                                a |= 1 << bit;
+                            } else {
+                                a |= 1 << bit;
+                                c |= 1 << bit;
+                            }
+                        }
+                    }
+                } while (a == c);
+                u[e] = scramble(a, scale, mask) + 1;
+                v[e] = scramble(c, scale, mask) + 1;
+                w[e] = 1 + rnd.nextInt(maxWgt);
+            }
+        });
+        return new EdgeList(mask + 1, m, u, v, w, System.nanoTime() - start);
+    }
+
+    // Method to make a random geometric graph of n points with about the
+    // given average degree. Points are bucketed into cells one radius wide,
+    // so each point is only compared with its own and the neighbouring cells;
+    // edges are counted per row of cells first, then filled in place.
+    public EdgeList geometric(int n, double degree) {
+        long start = System.nanoTime();
+        double r = Math.sqrt(degree / (Math.PI * n));
+        int side = Math.max(1, (int) (1 / r)); // Cells per side, each at least r wide
+        double r2 = r * r;
+
+        x = new double[n + 1];
+        y = new double[n + 1];
+        forEachBlock(n, b -> {
+            SplittableRandom rnd = random(b);
+            for (int i = b * BLOCK + 1, end = Math.min(n, b * BLOCK + BLOCK); i <= end; i++) {
+                x[i] = rnd.nextDouble();
+                y[i] = rnd.nextDouble();
+            }
+        });
+
+        // Counting sort of the points by cell, row major
+        int[] cellStart = new int[side * side + 1];
+        int[] cellOf = new int[n + 1];
+        for (int i = 1; i <= n; i++) {
+            cellOf[i] = cell(y[i], side) * side + cell(x[i], side);
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < side * side; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] points = new int[n];
+        int[] fill = Arrays.copyOf(cellStart, side * side);
+        for (int i = 1; i <= n; i++) {
+            points[fill[cellOf[i]]++] = i;
+        }
+
+        // Each row of cells is one unit of work, done twice: once to count
+        // its edges and once, at its offset, to write them
+        long[] rowStart = new long[side + 1];
+        forEachIndex(side, row -> rowStart[row + 1] = joinRow(row, side, cellStart, points, r2, null, null, null, 0));
+        for (int row = 0; row < side; row++) {
+            rowStart[row + 1] += rowStart[row];
+        }
+        if (rowStart[side] > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("geometric graph would have " + rowStart[side] + " edges, too many");
+        }
+
+        int E = (int) rowStart[side];
+        int[] u = new int[E], v = new int[E], w = new int[E];
+        forEachIndex(side, row -> joinRow(row, side, cellStart, points, r2, u, v, w, (int) rowStart[row]));
+
+        // Weights proportional to length, 1 up to maxWgt at the full radius
+        forEachBlock(E, b -> {
+            for (int e = b * BLOCK, end = Math.min(E, e + BLOCK); e < end; e++) {
+                double len = Math.hypot(x[u[e]] - x[v[e]], y[u[e]] - y[v[e]]);
+                w[e] = Math.max(1, (int) Math.ceil(len / r * maxWgt));
+            }
+        });
+        return new EdgeList(n, E, u, v, w, System.nanoTime() - start);
+    }
+
+    // Method to join each point in one row of cells to the points within the
+    // radius in the same cell and the cells right, below left, below and below
+    // right of it, so each pair is looked at once. With u null it only counts.
+    private int joinRow(int row, int side, int[] cellStart, int[] points, double r2, int[] u, int[] v, int[] w,
+            int at) {
+        int n = 0;
+        for (int col = 0; col < side; col++) {
+            int c = row * side + col;
+            for (int i = cellStart[c]; i < cellStart[c + 1]; i++) {
+                int p = points[i];
+                for (int k = 0; k < 5; k++) {
+                    int nr = row + (k < 2 ? 0 : 1);
+                    int nc = col + (k == 0 ? 0 : k == 1 ? 1 : k - 3);
+                    if (nr >= side || nc < 0 || nc >= side) {
+                        continue;
+                    }
+                    int d = nr * side + nc;
+                    for (int j = (d == c) ? i + 1 : cellStart[d]; j < cellStart[d + 1]; j++) {
+                        int q = points[j];
+                        double dx = x[p] - x[q], dy = y[p] - y[q];
+                        if (dx * dx + dy * dy <= r2) {
+                            if (u != null) {
+                                u[at + n] = p;
+                                v[at + n] = q;
+                            }
+                            n++;
+                        }
+                    }
+                }
+            }
+        }
+        return n;
+    }
+
+    // Method to check whether the last graph made has vertex coordinates
+    public boolean hasCoordinates() {
+        return x != null;
+    }
+
+    // Method to write the coordinates of the last grid or geometric graph as
+    // "V" then one "v x y" line per vertex
+    public void writeCoordinates(String coordFile) throws IOException {
+        if (x == null) {
+            throw new IllegalStateException("the last graph generated has no coordinates");
+        }
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(coordFile), 1 << 16))) {
+            out.println(x.length - 1);
+            for (int i = 1; i < x.length; i++) {
+                out.println(i + " " + x[i] + " " + y[i]);
+            }
+        }
+    }
+
+    // Method to write a graph in the text format, "V E" then "u v w" lines.
+    // Groups of blocks are formatted in parallel and written in order.
+    public void writeText(EdgeList g, String graphFile) throws IOException {
+        int blocks = (g.E + BLOCK - 1) / BLOCK;
+        ByteBuffer[] text = new ByteBuffer[GROUP];
+
+        try (FileChannel ch = FileChannel.open(Paths.get(graphFile), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(ch, ByteBuffer.wrap((g.V + " " + g.E + "\n").getBytes(StandardCharsets.US_ASCII)));
+            for (int first = 0; first < blocks; first += GROUP) {
+                int base = first;
+                int last = Math.min(blocks, first + GROUP);
+                forEachIndex(last - first, i -> text[i] = format(g, base + i));
+                for (int i = 0; i < last - first; i++) {
+                    writeFully(ch, text[i]);
+                    text[i] = null;
+                }
+            }
+        }
+    }
+
+    // Method to format the edges of one block as text
+    private static ByteBuffer format(EdgeList g, int b) {
+        int first = b * BLOCK, end = Math.min(g.E, first + BLOCK);
+        byte[] buf = new byte[(end - first) * 36]; // 3 ints of up to 11 characters, 2 spaces, newline
+        int n = 0;
+        for (int e = first; e < end; e++) {
+            n = digits(buf, n, g.u[e]);
+            buf[n++] = ' ';
+            n = digits(buf, n, g.v[e]);
+            buf[n++] = ' ';
+            n = digits(buf, n, g.w[e]);
+            buf[n++] = '\n';
+        }
+        return ByteBuffer.wrap(buf, 0, n);
+    }
+
+    // Method to put the decimal digits of a non-negative int into buf at n,
+    // returning the position after them
+    private static int digits(byte[] buf, int n, int val) {
+        int len = 1;
+        for (int t = val; t >= 10; t /= 10) {
+            len++;
+        }
+        for (int i = n + len - 1; i >= n; i--) {
+            buf[i] = (byte) ('0' + val % 10);
+            val /= 10;
+        }
+        return n + len;
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+    }
+
+    // Method to give block b its own random stream, the same every run
+    private SplittableRandom random(int b) {
+        return new SplittableRandom(mix(seed ^ mix(b + 1L)));
+    }
+
+    // SplitMix64 finaliser, to spread nearby seeds far apart
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Method to renumber an R-MAT vertex by a fixed bijection on scale bits
+    private static int scramble(int a, int scale, int mask) {
+        a = (a * 0x9E3779B1) & mask;
+        return a ^ (a >>> ((scale + 1) / 2));
+    }
+
+    private static int cell(double coord, int side) {
+        return Math.min(side - 1, (int) (coord * side));
+    }
+
+    // Method to run body for every block of n items on the pool
+    private void forEachBlock(int n, IntConsumer body) {
+        forEachIndex((n + BLOCK - 1) / BLOCK, body);
+    }
+
+    // Method to run body for 0 .. n - 1 on the pool
+    private void forEachIndex(int n, IntConsumer body) {
+        pool.invoke(new IndexTask(0, n, body));
+    }
+
+    // Calls body on every index in [lo, hi), splitting down to single indexes
+    private static class IndexTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private int lo, hi;
+        private IntConsumer body;
+
+        IndexTask(int _lo, int _hi, IntConsumer _body) {
+            lo = _lo;
+            hi = _hi;
+            body = _body;
+        }
+
+        protected void compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new IndexTask(lo, mid, body), new IndexTask(mid, hi, body));
+            } else if (hi > lo) {
+                body.accept(lo);
+            }
+        }
+    }
+
+    // Generator program, see the comment at the top for the options
+    public static void main(String[] args) throws IOException {
+        // e.g. --model=gnm --n=1000000 --m=10000000 --out=g.txt [--seed=1 --maxw=100 --threads=8]
+        //      --model=grid --rows=1000 --cols=1000, --model=rmat --scale=20 --m=16000000,
+        //      --model=geometric --n=1000000 --degree=8; add --format=text|binary
+        Options opts = new Options(args);
+        String out = opts.get("out", "");
+        if (out.isEmpty()) {
+            System.err.println("Usage: java Common.GraphGenerator --model=gnm|grid|rmat|geometric ... --out=file");
+            System.exit(2);
+        }
+        long seed = Long.parseLong(opts.get("seed", "1"));
+        ForkJoinPool pool = new ForkJoinPool(opts.getInt("threads", Runtime.getRuntime().availableProcessors()));
+        GraphGenerator gen = new GraphGenerator(seed, opts.getInt("maxw", 100), pool);
+
+        EdgeList g;
+        String model = opts.get("model", "gnm");
+        if (model.equalsIgnoreCase("gnm")) {
+            int n = opts.getInt("n", 1000);
+            g = gen.gnm(n, opts.getInt("m", 4 * n));
+        } else if (model.equalsIgnoreCase("grid")) {
+            int rows = opts.getInt("rows", 100);
+            g = gen.grid(rows, opts.getInt("cols", rows));
+        } else if (model.equalsIgnoreCase("rmat")) {
+            int scale = opts.getInt("scale", 16);
+            g = gen.rmat(scale, opts.getInt("m", 16 << scale));
+        } else if (model.equalsIgnoreCase("geometric")) {
+            g = gen.geometric(opts.getInt("n", 1000), Double.parseDouble(opts.get("degree", "8")));
+        } else {
+            throw new IllegalArgumentException("unknown model '" + model + "', expected gnm, grid, rmat or geometric");
+        }
+        System.out.printf("Generated %d vertices, %d edges in %.1f ms%n", g.V, g.E, g.loadNanos / 1e6);
+
+        long start = System.nanoTime();
+        boolean binary = opts.get("format", out.endsWith(".bin") ? "binary" : "text").equalsIgnoreCase("binary");
+        if (binary) {
+            BinaryGraphFile.write(g, out);
+        } else {
+            gen.writeText(g, out);
+        }
+        if (gen.hasCoordinates()) {
+            gen.writeCoordinates(out + ".xy");
+        }
+        System.out.printf("Wrote %s in %.1f ms%n", out, (System.nanoTime() - start) / 1e6);
+        pool.shutdown();
+    }
+}
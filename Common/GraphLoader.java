@@ -0,0 +1,196 @@
+package Common;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Reader for the text graph format shared by all three programs: a "V E"
+// header line followed by E lines of "u v wgt", one edge to a line. The file
+// is pulled through a large NIO buffer and numbers are parsed by a
+// hand-written digit scanner straight into primitive arrays, so nothing is
+// allocated per line. Files written by BinaryGraphFile are recognised by
+// their magic number and mapped instead.
+public class GraphLoader {
+    private static final int BUFFER_SIZE = 1 << 22; // 4 MB per channel read
+
+    private String name;
+    private FileChannel ch;
+    private ByteBuffer buf;
+    private int line = 1; // Line of the file being parsed, for error messages
+
+    private GraphLoader(String _name, FileChannel _ch) {
+        name = _name;
+        ch = _ch;
+        buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buf.flip(); // Start empty so the first read refills it
+    }
+
+    // Method to load a text or binary graph file into an EdgeList
+    public static EdgeList load(String graphFile) throws IOException {
+        if (BinaryGraphFile.isBinary(graphFile)) {
+            return BinaryGraphFile.load(graphFile);
+        }
+        long start = System.nanoTime();
+
+        try (FileChannel ch = FileChannel.open(Paths.get(graphFile), StandardOpenOption.READ)) {
+            GraphLoader in = new GraphLoader(graphFile, ch);
+
+            in.skipBom();
+            int V = in.nextInt();
+            int E = in.nextOnLine();
+            in.endLine();
+            if (V < 0 || E < 0) {
+                throw new IOException(graphFile + ": bad header " + V + " " + E);
+            }
+
+            int[] u = new int[E];
+            int[] v = new int[E];
+            int[] w = new int[E];
+            for (int e = 0; e < E; ++e) {
+                u[e] = in.nextInt();
+                v[e] = in.nextOnLine();
+                w[e] = in.nextOnLine();
+                in.endLine();
+
+                if (u[e] < 1 || u[e] > V || v[e] < 1 || v[e] > V) {
+                    throw new IOException(graphFile + ": edge " + (e + 1) + " joins " + u[e] + " and " + v[e]
+                            + " but vertices run from 1 to " + V);
+                }
+            }
+
+            return new EdgeList(V, E, u, v, w, System.nanoTime() - start);
+        } catch (EOFException e) {
+            throw new EOFException(graphFile + ": " + e.getMessage());
+        }
+    }
+
+    // Method to return the next byte of the file, or -1 at the end
+    private int read() throws IOException {
+        if (!buf.hasRemaining()) {
+            buf.clear();
+            if (ch.read(buf) < 0) {
+                buf.limit(0);
+                return -1;
+            }
+            buf.flip();
+            if (!buf.hasRemaining()) {
+                return read();
+            }
+        }
+        return buf.get() & 0xFF;
+    }
+
+    // Method to step back over the byte just read, which is still in the buffer
+    private void unread(int c) {
+        if (c >= 0) {
+            buf.position(buf.position() - 1);
+        }
+    }
+
+    // Method to skip a UTF-8 byte order mark at the start of the file
+    private void skipBom() throws IOException {
+        int c = read();
+        if (c != 0xEF) {
+            unread(c);
+            return;
+        }
+        if (read() != 0xBB || read() != 0xBF) {
+            throw error("unexpected byte 0xEF");
+        }
+    }
+
+    // Method to parse the first number of a line, skipping blank lines before it
+    private int nextInt() throws IOException {
+        int c = read();
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            if (c == '\n') {
+                line++;
+            }
+            c = read();
+        }
+        if (c < 0) {
+            throw new EOFException("file ends before all edges were read");
+        }
+        unread(c);
+        return parseInt();
+    }
+
+    // Method to parse the next number on the current line
+    private int nextOnLine() throws IOException {
+        int c = skipBlanks();
+        if (c < 0 || c == '\n') {
+            throw error("expected another number before the end of the line");
+        }
+        unread(c);
+        return parseInt();
+    }
+
+    // Method to check that nothing but whitespace is left on the current line
+    private void endLine() throws IOException {
+        int c = skipBlanks();
+        if (c == '\n') {
+            line++;
+        } else if (c >= 0) {
+            throw error("expected the end of the line but found " + describe(c));
+        }
+    }
+
+    // Method to return the first byte that isn't a space, tab or carriage return
+    private int skipBlanks() throws IOException {
+        int c = read();
+        while (c == ' ' || c == '\r' || c == '\t') {
+            c = read();
+        }
+        return c;
+    }
+
+    // Method to parse an optionally signed integer starting at the next byte
+    private int parseInt() throws IOException {
+        int c = read();
+        boolean neg = (c == '-');
+        if (neg) {
+            c = read();
+        }
+        if (c < '0' || c > '9') {
+            throw error("expected a number but found " + describe(c));
+        }
+
+        long n = 0;
+        while (c >= '0' && c <= '9') {
+            n = n * 10 + (c - '0');
+            if (n > Integer.MAX_VALUE + 1L) {
+                throw error("number too large for an int");
+            }
+            c = read();
+        }
+        if (c >= 0 && c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+            throw error("unexpected character " + describe(c) + " after a number");
+        }
+        unread(c);
+
+        n = neg ? -n : n;
+        if (n > Integer.MAX_VALUE) {
+            throw error("number too large for an int");
+        }
+        return (int) n;
+    }
+
+    // Method to build a parse error naming the file and the current line
+    private IOException error(String message) {
+        return new IOException(name + ": line " + line + ": " + message);
+    }
+
+    // Method to name a byte in an error message
+    private static String describe(int c) {
+        if (c < 0) {
+            return "the end of the file";
+        }
+        if (c >= 0x20 && c < 0x7F) {
+            return "'" + (char) c + "'";
+        }
+        return String.format("byte 0x%02X", c);
+    }
+}
@@ -0,0 +1,35 @@
+package Common;
+
+// The priority queue engines Prim and Dijkstra can run on, chosen per run with
+// --heap=binary|quad|pairing|bucket.
+public enum HeapType {
+    BINARY, // Binary heap, the original engine
+    QUAD, // 4-ary heap, shallower and more cache friendly
+    PAIRING, // Pairing heap, O(1) insert and decreaseKey
+    BUCKET; // Bucket queue, for small integer weights
+
+    // Method to build a queue over entries 1..maxSize keyed by key[], where
+    // span bounds the gap between the smallest and largest queued keys
+    public IndexedHeap create(int maxSize, int[] key, int span) {
+        switch (this) {
+            case QUAD:
+                return new DaryHeap(4, maxSize, key);
+            case PAIRING:
+                return new PairingHeap(maxSize, key);
+            case BUCKET:
+                return new BucketQueue(maxSize, key, span);
+            default:
+                return new BinaryHeap(maxSize, key);
+        }
+    }
+
+    // Method to look up an engine by name, ignoring case
+    public static HeapType parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown heap type '" + name + "', expected one of "
+                    + java.util.Arrays.toString(values()));
+        }
+    }
+}
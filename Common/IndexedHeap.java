@@ -0,0 +1,41 @@
+package Common;
+
+// Indexed min-priority queue over the integers 1..maxSize (vertices for Prim and
+// Dijkstra, edge indices for Kruskal). Priorities are not copied in: every
+// implementation reads them from a key array shared with the caller, so after
+// lowering key[v] for a queued v the caller must call decreaseKey(v).
+public interface IndexedHeap {
+    // Method to check if the heap is empty
+    boolean isEmpty();
+
+    // Method to return the number of entries in the heap
+    int size();
+
+    // Method to check whether v is currently in the heap
+    boolean contains(int v);
+
+    // Method to insert v, which must not already be in the heap
+    void insert(int v);
+
+    // Method to restore heap order after key[v] has been lowered
+    void decreaseKey(int v);
+
+    // Method to return the entry with the smallest key without removing it,
+    // or 0 if the heap is empty
+    int peek();
+
+    // Method to remove and return the entry with the smallest key
+    int remove();
+
+    // Method to empty the heap so it can be reused with the same key array
+    void clear();
+
+    // Method to insert v, or move it up if it is already queued
+    default void insertOrUpdate(int v) {
+        if (contains(v)) {
+            decreaseKey(v);
+        } else {
+            insert(v);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package Common;
+
+// First-in first-out queue of ints in a fixed ring buffer, so queueing needs
+// no node objects and no boxing. The capacity is set up front; a traversal
+// that marks vertices as it queues them never holds more than V at once.
+public class IntQueue {
+    private int[] ring; // Queued values, oldest at ring[head]
+    private int head; // Index of the oldest value
+    private int N; // Number of values queued
+
+    public IntQueue(int capacity) {
+        ring = new int[Math.max(capacity, 1)];
+        head = 0;
+        N = 0;
+    }
+
+    public boolean isEmpty() {
+        return N == 0;
+    }
+
+    public int size() {
+        return N;
+    }
+
+    // Method to add x at the back of the queue
+    public void add(int x) {
+        if (N == ring.length) {
+            throw new IllegalStateException("queue is full at " + N + " entries");
+        }
+        int tail = head + N;
+        if (tail >= ring.length) {
+            tail -= ring.length;
+        }
+        ring[tail] = x;
+        ++N;
+    }
+
+    // Method to remove and return the value at the front of the queue
+    public int poll() {
+        if (N == 0) {
+            throw new IllegalStateException("queue is empty");
+        }
+        int x = ring[head];
+        if (++head == ring.length) {
+            head = 0;
+        }
+        --N;
+        return x;
+    }
+
+    public void clear() {
+        head = 0;
+        N = 0;
+    }
+}
@@ -0,0 +1,48 @@
+package Common;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Command line options of the form --name=value or --flag, shared by the
+// programs so runs can be tuned without changing the interactive prompts.
+public class Options {
+    private Map<String, String> values = new HashMap<>();
+
+    // Constructor parsing the arguments given to main
+    public Options(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("unexpected argument '" + arg + "', options look like --name=value");
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+    }
+
+    // Method to check whether an option was given
+    public boolean has(String name) {
+        return values.containsKey(name);
+    }
+
+    // Method to get an option's value, or def when it was not given
+    public String get(String name, String def) {
+        return values.getOrDefault(name, def);
+    }
+
+    // Method to get a numeric option's value, or def when it was not given
+    public int getInt(String name, int def) {
+        String s = values.get(name);
+        if (s == null) {
+            return def;
+        }
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("option --" + name + " expects a number, got '" + s + "'");
+        }
+    }
+}
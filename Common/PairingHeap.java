@@ -0,0 +1,140 @@
+package Common;
+
+// Pairing heap over entries 1..maxSize, stored in int arrays rather than node
+// objects. Insert and decreaseKey are O(1) melds, which suits graphs where most
+// relaxations lower a key; remove pays for the deferred work with the usual
+// two-pass pairing of the root's children.
+public class PairingHeap implements IndexedHeap {
+    private int[] child; // First child, 0 if none
+    private int[] sibling; // Next sibling to the right, 0 if none
+    private int[] prev; // Left sibling, or the parent for a first child
+    private boolean[] queued; // queued[v] is true while v is in the heap
+    private int[] work; // Scratch space for pairing and clearing
+    private int[] key; // key[v] = priority of v
+    private int root; // Entry with the smallest key, 0 when empty
+    private int N; // Current size of the heap
+
+    // Constructor taking the largest entry that will be stored and the key array
+    public PairingHeap(int maxSize, int[] _key) {
+        child = new int[maxSize + 1];
+        sibling = new int[maxSize + 1];
+        prev = new int[maxSize + 1];
+        queued = new boolean[maxSize + 1];
+        work = new int[maxSize + 1];
+        key = _key;
+        root = 0;
+        N = 0;
+    }
+
+    public boolean isEmpty() {
+        return N == 0;
+    }
+
+    public int size() {
+        return N;
+    }
+
+    public boolean contains(int v) {
+        return queued[v];
+    }
+
+    // Method to link two detached trees, making the larger root the first child
+    // of the smaller one, and return the new root
+    private int meld(int x, int y) {
+        if (key[y] < key[x]) {
+            int t = x;
+            x = y;
+            y = t;
+        }
+        sibling[y] = child[x];
+        if (child[x] != 0) {
+            prev[child[x]] = y;
+        }
+        prev[y] = x;
+        child[x] = y;
+        return x;
+    }
+
+    public void insert(int v) {
+        child[v] = sibling[v] = prev[v] = 0;
+        queued[v] = true;
+        root = (root == 0) ? v : meld(root, v);
+        ++N;
+    }
+
+    public void decreaseKey(int v) {
+        if (v == root) {
+            return;
+        }
+
+        // Cutting v and its subtree out of its sibling list
+        int p = prev[v];
+        if (child[p] == v) {
+            child[p] = sibling[v];
+        } else {
+            sibling[p] = sibling[v];
+        }
+        if (sibling[v] != 0) {
+            prev[sibling[v]] = p;
+        }
+        sibling[v] = prev[v] = 0;
+
+        root = meld(root, v);
+    }
+
+    public int peek() {
+        return root;
+    }
+
+    public int remove() {
+        int v = root;
+        queued[v] = false;
+        --N;
+
+        // First pass: meld the children left to right in pairs
+        int n = 0;
+        int x = child[v];
+        child[v] = 0;
+        while (x != 0) {
+            int y = sibling[x];
+            int next = (y == 0) ? 0 : sibling[y];
+            sibling[x] = prev[x] = 0;
+            if (y != 0) {
+                sibling[y] = prev[y] = 0;
+                x = meld(x, y);
+            }
+            work[n++] = x;
+            x = next;
+        }
+
+        // Second pass: meld the pairs right to left into a single tree
+        root = 0;
+        if (n > 0) {
+            root = work[--n];
+            while (n > 0) {
+                root = meld(work[--n], root);
+            }
+        }
+        return v;
+    }
+
+    public void clear() {
+        // Walking the whole tree with an explicit stack to unmark every entry
+        int n = 0;
+        if (root != 0) {
+            work[n++] = root;
+        }
+        while (n > 0) {
+            int x = work[--n];
+            queued[x] = false;
+            if (child[x] != 0) {
+                work[n++] = child[x];
+            }
+            if (sibling[x] != 0) {
+                work[n++] = sibling[x];
+            }
+        }
+        root = 0;
+        N = 0;
+    }
+}
@@ -0,0 +1,59 @@
+package Common;
+
+import java.io.PrintStream;
+
+// How much the programs print while they run, chosen with
+// --trace=off|summary|step:
+//   OFF     - nothing; results are only returned to the caller
+//   SUMMARY - headline results such as the MST weight or final distances
+//   STEP    - the full step-by-step trace of every heap and edge operation
+// Callers test the level before building a message, e.g.
+//   if (trace.steps()) trace.out.println("Visited: " + v);
+// so a quiet run does no string building at all in its inner loops.
+public class Trace {
+    public enum Level {
+        OFF, SUMMARY, STEP
+    }
+
+    public static final Trace OFF = new Trace(Level.OFF, System.out);
+    public static final Trace SUMMARY = new Trace(Level.SUMMARY, System.out);
+    public static final Trace STEP = new Trace(Level.STEP, System.out);
+
+    public final Level level;
+    public final PrintStream out; // Where trace output goes
+
+    public Trace(Level _level, PrintStream _out) {
+        level = _level;
+        out = _out;
+    }
+
+    // Method to check whether headline results should be printed
+    public boolean summary() {
+        return level != Level.OFF;
+    }
+
+    // Method to check whether every individual step should be printed
+    public boolean steps() {
+        return level == Level.STEP;
+    }
+
+    // Method to name vertex v of a graph with V vertices in printed output:
+    // the letters A..Z while they are enough, the vertex number beyond that
+    public static String label(int v, int V) {
+        return V <= 26 ? String.valueOf((char) (v + 64)) : Integer.toString(v);
+    }
+
+    // Method to look up a level by name, ignoring case, printing to System.out
+    public static Trace parse(String name) {
+        switch (name.trim().toLowerCase()) {
+            case "off":
+                return OFF;
+            case "summary":
+                return SUMMARY;
+            case "step":
+                return STEP;
+            default:
+                throw new IllegalArgumentException("unknown trace level '" + name + "', expected off, summary or step");
+        }
+    }
+}
@@ -1,214 +1,153 @@
 
 // Importing necessary libraries for file reading, data structures, and input/output
 import java.io.*;
-import java.util.Queue;
+import java.util.Arrays;
 import java.util.Scanner;
-import java.util.LinkedList;
-
-// Definition of the Heap class for efficient implementation of Prim's Algorithm
-class Heap {
-    // Declaring necessary instance variables for the heap
-    private int[] a; // heap array
-    private int[] hPos; // hPos[h[k]] == k
-    private int[] dist; // dist[v] = priority of v
-    private int N; // heap size
-
-    // Constructor for the Heap class
-    // Takes maximum heap size, reference to the dist[] array, and reference to the
-    // hPos[] array
-    public Heap(int maxSize, int[] _dist, int[] _hPos) {
-        N = 0;
-        a = new int[maxSize + 1];
-        dist = _dist;
-        hPos = _hPos;
-    }
-
-    // Method to check if the heap is empty
-    public boolean isEmpty() {
-        return N == 0;
-    }
-
-    // Method to perform sift-up operation in the heap
-    public void siftUp(int k) {
-        // Get the vertex at index k
-        int v = a[k];
-
-        // Perform sift-up operation until the vertex's priority is higher than its
-        // parent's priority
-        while (dist[v] < dist[a[k / 2]]) {
-            hPos[a[k]] = k / 2;
-            a[k] = a[k / 2];
-            k = k / 2;
-        }
-        a[k] = v;
-        hPos[v] = k;
-    }
-
-    // Method to perform sift-down operation in the heap
-    public void siftDown(int k) {
-        int v, j;
-        v = a[k];
-
-        // Perform sift-down operation until the vertex's priority is lower than its
-        // children's priorities
-        while (k * 2 < N) {
-            j = k * 2;
-            if (j < N && dist[a[j]] > dist[a[j + 1]]) {
-                ++j;
-            }
-            if (dist[v] <= dist[a[j]]) {
-                break;
-            }
-
-            hPos[a[k]] = j;
-            a[k] = a[j];
-            k = j;
-        }
-        hPos[v] = k;
-        a[k] = v;
-    }
-
-    // Method to insert a vertex into the heap
-    public void insert(int x) {
-        System.out.println("Inserting: " + toChar(x));
-        a[++N] = x;
-        siftUp(N);
-    }
-
-    // Method to remove the minimum vertex from the heap
-    public int remove() {
-        int v = a[1];
-        System.out.println("Removing: " + toChar(v));
-        hPos[v] = 0;
-
-        a[1] = a[N--];
-        siftDown(1);
-
-        a[N + 1] = 0;
-
-        return v;
-    }
-
-    // Method to convert vertex number to corresponding character
-    private char toChar(int u) {
-        return (char) (u + 64);
-    }
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import Common.EdgeList;
+import Common.GraphLoader;
+import Common.HeapType;
+import Common.IndexedHeap;
+import Common.IntQueue;
+import Common.Options;
+import Common.Trace;
+
+// Callbacks for Graph.DF: pre(v, prev) as v is first reached from prev (0 for
+// the start vertex) and post(v) once everything reachable through v is done
+interface DFVisitor {
+    void pre(int v, int prev);
+
+    void post(int v);
 }
 
 // Definition of the Graph class
 class Graph {
-    // Definition of the Node class for adjacency lists
-    class Node {
-        public int vert; // Vertex
-        public int wgt; // Weight
-        public Node next; // Next node
-    }
-
     // Instance variables for the graph
     private int V, E; // Number of vertices and edges
-    private Node[] adj; // Adjacency lists array
-    private Node z; // Sentinel node
+    private int maxWgt; // Heaviest edge weight, bounds the keys a bucket queue sees
+
+    // Adjacency stored in compressed sparse row (CSR) form: the neighbours of
+    // vertex v are target[i] with edge weight weight[i] for
+    // offset[v] <= i < offset[v + 1]. Each undirected edge gives two entries.
+    private int[] offset; // Start of each vertex's run in target[]/weight[]
+    private int[] target; // Neighbouring vertices
+    private int[] weight; // Edge weights, parallel to target[]
     private int[] mst; // Minimum Spanning Tree array
+    private long mstWeight; // Total weight of the last MST found
+    private Trace trace; // How much to print while working
 
     // Variables for traversing the graph
     private int[] visited; // Array to track visited vertices
     private int id; // Identifier for vertices
 
-    // Constructor for the Graph class
+    // Constructor for the Graph class, printing every step
     public Graph(String graphFile) throws IOException {
+        this(graphFile, Trace.STEP);
+    }
+
+    // Constructor for the Graph class with the given trace level
+    public Graph(String graphFile, Trace _trace) throws IOException {
         int u, v; // Vertices
         int e, wgt; // Edges and weights
-        Node t, w; // Temporary nodes for edge creation
-
-        // Reading the graph file
-        FileReader fr = new FileReader(graphFile);
-        BufferedReader reader = new BufferedReader(fr);
-
-        try {
-            String splits = " +"; // Delimiter for splitting lines
-            String line = reader.readLine();
-            String[] parts = line.split(splits);
-            System.out.println("Parts[] = " + parts[0] + " " + parts[1]);
-
-            V = Integer.parseInt(parts[0]); // Extracting number of vertices
-            E = Integer.parseInt(parts[1]); // Extracting number of edges
-
-            // Creating sentinel node
-            z = new Node();
-            z.next = z;
-
-            // Creating adjacency lists, initialized to sentinel node z
-            adj = new Node[V + 1];
-            for (v = 1; v <= V; ++v)
-                adj[v] = z;
-
-            // Reading the edges from the file
-            System.out.println("Reading edges from text file");
-            for (e = 1; e <= E; ++e) {
-                line = reader.readLine();
-                parts = line.split(splits);
-                u = Integer.parseInt(parts[0]);
-                v = Integer.parseInt(parts[1]);
-                wgt = Integer.parseInt(parts[2]);
-
-                System.out.println("Edge " + toChar(u) + "--(" + wgt + ")--" + toChar(v));
-
-                // Creating nodes for the edge and adding them to the adjacency lists
-                t = new Node();
-                t.vert = v;
-                t.wgt = wgt;
-                t.next = adj[u];
-                adj[u] = t;
-
-                w = new Node();
-                w.vert = u;
-                w.wgt = wgt;
-                w.next = adj[v];
-                adj[v] = w;
+        trace = _trace;
 
-            }
-        } finally {
-            // Closing the reader in the finally block to ensure it gets closed
-            if (reader != null) {
-                reader.close();
-            }
+        // Loading the graph file
+        EdgeList in = GraphLoader.load(graphFile);
+        if (trace.summary())
+            trace.out.println("Parts[] = " + in.V + " " + in.E);
+
+        V = in.V; // Number of vertices
+        E = in.E; // Number of edges
+        maxWgt = in.maxWgt;
+
+        // offset[v + 1] counts the degree of v during the first pass
+        offset = new int[V + 2];
+
+        // First pass: going through the loaded edges and counting degrees
+        if (trace.summary())
+            trace.out.println("Reading edges from text file");
+        for (e = 0; e < E; ++e) {
+            u = in.u[e];
+            v = in.v[e];
+            wgt = in.w[e];
+
+            if (trace.steps())
+                trace.out.println("Edge " + toChar(u) + "--(" + wgt + ")--" + toChar(v));
+
+            ++offset[u + 1];
+            ++offset[v + 1];
+        }
+        if (trace.summary())
+            trace.out.println(in.loadSummary());
+
+        // Turning the degree counts into start offsets
+        for (v = 1; v <= V + 1; ++v)
+            offset[v] += offset[v - 1];
+
+        // Second pass: scattering both directions of every edge into place.
+        // Each run is filled from its end so that neighbours appear newest
+        // first, the same order the old linked lists gave.
+        target = new int[2 * E];
+        weight = new int[2 * E];
+        int[] next = new int[V + 1];
+        for (v = 1; v <= V; ++v)
+            next[v] = offset[v + 1];
+
+        for (e = 0; e < E; ++e) {
+            u = in.u[e];
+            v = in.v[e];
+
+            --next[u];
+            target[next[u]] = v;
+            weight[next[u]] = in.w[e];
+
+            --next[v];
+            target[next[v]] = u;
+            weight[next[v]] = in.w[e];
         }
     }
 
-    // Method to convert vertex number to corresponding character
-    private char toChar(int u) {
-        return (char) (u + 64);
+    // Method to convert vertex number to its printed name
+    private String toChar(int u) {
+        return Trace.label(u, V);
     }
 
     // Method to display the graph representation
     public void display() {
-        int v;
-        Node n;
+        int v, i;
         System.out.println("Vertex        Edge Weight");
         for (v = 1; v <= V; ++v) {
             System.out.print("\nadj[" + toChar(v) + "] ->");
-            for (n = adj[v]; n != z; n = n.next)
-                System.out.print(" |" + toChar(n.vert) + " | " + n.wgt + "| ->");
+            for (i = offset[v]; i < offset[v + 1]; ++i)
+                System.out.print(" |" + toChar(target[i]) + " | " + weight[i] + "| ->");
         }
         System.out.println("");
     }
 
-    // Prim's Minimum Spanning Tree Algorithm
-    public void MST_Prim(int s) {
-        int v;
-        int wgt_sum = 0; // Total weight of MST
-        int[] dist, parent, hPos; // Arrays for distances, parent vertices, and heap positions
-        Node t;
+    // Prim's Minimum Spanning Tree Algorithm using the binary heap
+    public int[] MST_Prim(int s) {
+        return MST_Prim(s, HeapType.BINARY);
+    }
+
+    // Prim's Minimum Spanning Tree Algorithm using the chosen priority queue.
+    // Returns the parent array, with parent[s] == s; the tree's weight is
+    // available from getMSTWeight() afterwards
+    public int[] MST_Prim(int s, HeapType heapType) {
+        int v, u, wgt;
+        long wgt_sum = 0; // Total weight of MST
+        int[] dist, parent; // Arrays for distances and parent vertices
 
         // Initializing arrays
         dist = new int[V + 1];
         parent = new int[V + 1];
-        hPos = new int[V + 1];
 
         for (int i = 1; i <= V; i++) {
             dist[i] = Integer.MAX_VALUE;
             parent[i] = 0;
-            hPos[i] = 0;
         }
 
         parent[s] = s;
@@ -216,7 +155,9 @@ class Graph {
         dist[0] = 0;
 
         // Creating and initializing heap
-        Heap pq = new Heap(V, dist, hPos);
+        IndexedHeap pq = heapType.create(V, dist, maxWgt);
+        if (trace.steps())
+            trace.out.println("Inserting: " + toChar(s));
         pq.insert(s);
 
         // Main loop of Prim's algorithm
@@ -225,44 +166,61 @@ class Graph {
 
             // Marking vertex as visited by negating the distance
             dist[v] = -dist[v];
-            System.out.println("Visited: " + toChar(v));
-            System.out.println("\n");
-
-            t = adj[v];
+            if (trace.steps()) {
+                trace.out.println("Removing: " + toChar(v));
+                trace.out.println("Visited: " + toChar(v));
+                trace.out.println("\n");
+            }
 
             // Iterating through adjacent vertices
-            while (t.next != t) {
+            for (int i = offset[v]; i < offset[v + 1]; ++i) {
+                u = target[i];
+                wgt = weight[i];
+
                 // If the vertex hasn't been visited and its distance is less than the current
                 // distance
-                if (t.wgt < dist[t.vert] && dist[t.vert] > 0) {
-                    dist[t.vert] = t.wgt;
-                    parent[t.vert] = v;
+                if (wgt < dist[u] && dist[u] > 0) {
+                    dist[u] = wgt;
+                    parent[u] = v;
 
                     // Inserting or updating the vertex in the heap
-                    if (hPos[t.vert] == 0) {
-                        pq.insert(t.vert);
+                    if (!pq.contains(u)) {
+                        if (trace.steps())
+                            trace.out.println("Inserting: " + toChar(u));
+                        pq.insert(u);
                     } else {
-                        pq.siftUp(hPos[t.vert]);
+                        pq.decreaseKey(u);
                     }
                 }
-
-                // Moving to the next adjacent vertex
-                t = t.next;
             }
         }
 
-        // Calculating total weight of MST
-        for (int i = 0; i <= V; i++) {
-            wgt_sum += dist[i];
+        // Calculating total weight of MST; visited vertices hold their
+        // negated edge weight, vertices in other components MAX_VALUE
+        int unreached = 0;
+        for (int i = 1; i <= V; i++) {
+            if (dist[i] <= 0)
+                wgt_sum -= dist[i];
+            else
+                unreached++;
         }
 
-        // Ensuring result is positive integer for printing the final MST weight
-        wgt_sum *= -1;
-
         // Printing final MST Weight
-        System.out.print("\n\n\nTOTAL MST WEIGHT ->> " + wgt_sum + "\n\n");
+        if (trace.summary()) {
+            trace.out.print("\n\n\nTOTAL MST WEIGHT ->> " + wgt_sum + "\n\n");
+            if (unreached > 0)
+                trace.out.println("The tree only spans the component of " + toChar(s) + ": " + unreached
+                        + " vertices are not reached\n");
+        }
 
         mst = parent;
+        mstWeight = wgt_sum;
+        return mst;
+    }
+
+    // Method to get the total weight of the MST found by the last MST_Prim
+    public long getMSTWeight() {
+        return mstWeight;
     }
 
     // Method to display the MST
@@ -277,6 +235,9 @@ class Graph {
             if (v == mst[v]) {
                 // Demarking the starting node with an @ symbol
                 System.out.println(toChar(v) + " -> @");
+            } else if (mst[v] == 0) {
+                // Vertex in another component
+                System.out.println(toChar(v) + " -> -");
             } else {
                 System.out.println(toChar(v) + " -> " + toChar(mst[v]));
             }
@@ -285,62 +246,272 @@ class Graph {
         System.out.print("\n\n");
     }
 
-    // Depth First Traversal
-    public void DF(int s) {
+    // Depth First Traversal, returning visited[] where visited[v] is the
+    // order in which v was reached (1 for s) or 0 if it never was
+    public int[] DF(int s) {
+        return DF(s, null);
+    }
+
+    // Depth First Traversal calling back visitor (if not null) as each vertex
+    // is reached and finished. Runs on an explicit stack rather than by
+    // recursion, so paths of any length fit, and visits vertices in the same
+    // order the recursive version did.
+    public int[] DF(int s, DFVisitor visitor) {
+        int[] stack = new int[V + 1]; // Vertices on the current DFS path
+        int[] next = new int[V + 1]; // Next adjacency index to try for each vertex on the path
+        int top = 0;
+
         id = 0;
         visited = new int[V + 1];
-        System.out.println("");
-
-        for (int j = 1; j <= V; j++) {
-            visited[j] = 0;
+        if (trace.steps())
+            trace.out.println("");
+
+        reach(s, 0, visitor);
+        stack[top++] = s;
+        next[s] = offset[s];
+
+        while (top > 0) {
+            int v = stack[top - 1];
+
+            if (next[v] < offset[v + 1]) {
+                // Descending to the next unvisited neighbour, if any
+                int u = target[next[v]++];
+                if (visited[u] == 0) {
+                    reach(u, v, visitor);
+                    stack[top++] = u;
+                    next[u] = offset[u];
+                }
+            } else {
+                // All neighbours tried, so v is finished
+                --top;
+                if (visitor != null)
+                    visitor.post(v);
+            }
         }
-        dfVisit(0, s);
+        return visited;
     }
 
-    // Helper method for Depth First Traversal
-    private void dfVisit(int prev, int v) {
-        Node n = new Node();
-        n = adj[v];
+    // Helper method numbering v as it is first reached from prev
+    private void reach(int v, int prev, DFVisitor visitor) {
         visited[v] = ++id;
-        System.out.println("Visiting node [" + toChar(v) + "] from node [" + toChar(prev) + "]");
-        while (n.next != n) {
-            if (visited[n.vert] == 0) {
-                dfVisit(v, n.vert); // Recursively call the next vertex
-            }
-            n = n.next;
-        }
+        if (trace.steps())
+            trace.out.println("Visiting node [" + toChar(v) + "] from node [" + toChar(prev) + "]");
+        if (visitor != null)
+            visitor.pre(v, prev);
     }
 
-    // Breadth First Traversal
-    public void BF(int s) {
-        int id = 0;
-        Node n;
-        Queue<Integer> q = new LinkedList<Integer>();
-        System.out.println();
-        System.out.println("Breadth First Traversal:");
-
-        // Initializing visited array
-        for (int i = 0; i <= V; i++) {
-            visited[i] = 0;
+    // Breadth First Traversal, returning level[] where level[v] is the number
+    // of edges on a shortest path from s to v, or -1 if v is unreachable.
+    // Vertices are marked as they are queued, so each is queued at most once
+    // and the int ring buffer never holds more than V entries.
+    public int[] BF(int s) {
+        int[] level = new int[V + 1];
+        IntQueue q = new IntQueue(V);
+        if (trace.steps()) {
+            trace.out.println();
+            trace.out.println("Breadth First Traversal:");
         }
+
+        // Initializing level array, -1 meaning not yet reached
+        Arrays.fill(level, -1);
+
+        level[s] = 0;
         q.add(s);
         while (!(q.isEmpty())) {
             int v = q.poll();
-            if (visited[v] == 0) {
-                n = adj[v];
-                visited[v] = ++id;
-                System.out.println("Currently visiting [" + toChar(v) + "]");
-                while (n.next != n) {
-                    if (visited[n.vert] == 0) {
-                        q.add(n.vert);
-                    }
-                    n = n.next;
+            if (trace.steps())
+                trace.out.println("Currently visiting [" + toChar(v) + "] at level " + level[v]);
+
+            for (int i = offset[v]; i < offset[v + 1]; ++i) {
+                int u = target[i];
+                if (level[u] < 0) {
+                    level[u] = level[v] + 1;
+                    q.add(u);
                 }
             }
         }
 
         // Newlines for formatting
-        System.out.print("\n\n");
+        if (trace.steps())
+            trace.out.print("\n\n");
+        return level;
+    }
+
+    // Parallel Breadth First Search from s on the threads of pool, switching
+    // between top-down and bottom-up steps; gives the same levels as BF
+    public BFSTree BF_Parallel(int s, ForkJoinPool pool) {
+        BFSTree tree = new DirectionOptimizingBFS(V, offset, target).run(s, pool);
+
+        if (trace.summary()) {
+            int reached = 0, depth = 0;
+            for (int v = 1; v <= V; ++v) {
+                if (tree.level[v] >= 0) {
+                    ++reached;
+                    depth = Math.max(depth, tree.level[v]);
+                }
+            }
+            trace.out.println("Parallel BFS from [" + toChar(s) + "] reached " + reached + " vertices in "
+                    + (depth + 1) + " levels");
+        }
+        return tree;
+    }
+}
+
+// Result of a parallel breadth first search: level[v] is the number of edges
+// from the source to v (-1 if unreachable) and parent[v] the vertex v was
+// reached from (the source is its own parent, 0 if unreachable)
+class BFSTree {
+    public final int[] level;
+    public final int[] parent;
+
+    public BFSTree(int[] _level, int[] _parent) {
+        level = _level;
+        parent = _parent;
+    }
+}
+
+// Definition of the DirectionOptimizingBFS class, a level-synchronous
+// parallel BFS over the CSR arrays of a Graph. Frontiers are bitmaps with one
+// bit per vertex. Each level is expanded either top-down (frontier vertices
+// claim their unvisited neighbours) or bottom-up (unvisited vertices look for
+// any neighbour in the frontier and stop at the first one), whichever should
+// examine fewer edges, following Beamer, Asanovic and Patterson's heuristic.
+// Work within a level is split into fork-join tasks over ranges of bitmap words.
+class DirectionOptimizingBFS {
+    private static final int ALPHA = 14; // Go bottom-up once frontier edges > unexplored edges / ALPHA
+    private static final int BETA = 24; // Go back top-down once frontier size < V / BETA
+    private static final int GRAIN = 256; // Bitmap words (of 64 vertices) per task
+
+    private int V;
+    private int[] offset, target; // CSR adjacency shared with the Graph
+
+    private int[] level;
+    private AtomicIntegerArray parent; // 0 until the vertex is claimed
+    private long[] frontier; // Bitmap of the current level
+    private AtomicLongArray next; // Bitmap of the level being built
+    private LongAdder nextSize, nextEdges; // Vertices and their degrees in next
+    private int depth;
+
+    public DirectionOptimizingBFS(int _V, int[] _offset, int[] _target) {
+        V = _V;
+        offset = _offset;
+        target = _target;
+    }
+
+    // Method to run the search from s using the threads of pool
+    public BFSTree run(int s, ForkJoinPool pool) {
+        int words = (V >> 6) + 1;
+        level = new int[V + 1];
+        Arrays.fill(level, -1);
+        parent = new AtomicIntegerArray(V + 1);
+        frontier = new long[words];
+        next = new AtomicLongArray(words);
+        nextSize = new LongAdder();
+        nextEdges = new LongAdder();
+
+        level[s] = 0;
+        parent.set(s, s);
+        frontier[s >> 6] |= 1L << s;
+
+        long frontierSize = 1;
+        long frontierEdges = offset[s + 1] - offset[s];
+        long unexplored = (long) offset[V + 1] - frontierEdges; // Edge ends not yet looked at
+        boolean bottomUp = false;
+
+        for (depth = 0; frontierSize > 0; ++depth) {
+            // Switching direction by comparing the work each step would do
+            if (!bottomUp && frontierEdges > unexplored / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontierSize < V / BETA) {
+                bottomUp = false;
+            }
+
+            nextSize.reset();
+            nextEdges.reset();
+            pool.invoke(new StepTask(0, words, bottomUp));
+
+            // The new level becomes the frontier
+            for (int k = 0; k < words; ++k) {
+                frontier[k] = next.getAndSet(k, 0L);
+            }
+            frontierSize = nextSize.sum();
+            frontierEdges = nextEdges.sum();
+            unexplored -= frontierEdges;
+        }
+
+        int[] par = new int[V + 1];
+        for (int v = 1; v <= V; ++v) {
+            par[v] = parent.get(v);
+        }
+        return new BFSTree(level, par);
+    }
+
+    // Method to add u, just reached from v, to the next level
+    private void claimed(int u, int v) {
+        level[u] = depth + 1;
+        next.getAndAccumulate(u >> 6, 1L << u, (a, b) -> a | b);
+        nextSize.increment();
+        nextEdges.add(offset[u + 1] - offset[u]);
+    }
+
+    // One BFS level over the bitmap words [lo, hi)
+    private class StepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private int lo, hi;
+        private boolean bottomUp;
+
+        StepTask(int _lo, int _hi, boolean _bottomUp) {
+            lo = _lo;
+            hi = _hi;
+            bottomUp = _bottomUp;
+        }
+
+        protected void compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new StepTask(lo, mid, bottomUp), new StepTask(mid, hi, bottomUp));
+            } else if (bottomUp) {
+                bottomUpStep();
+            } else {
+                topDownStep();
+            }
+        }
+
+        // Every frontier vertex tries to claim each unvisited neighbour
+        private void topDownStep() {
+            for (int k = lo; k < hi; ++k) {
+                for (long bits = frontier[k]; bits != 0; bits &= bits - 1) {
+                    int v = (k << 6) + Long.numberOfTrailingZeros(bits);
+                    for (int i = offset[v]; i < offset[v + 1]; ++i) {
+                        int u = target[i];
+                        if (parent.get(u) == 0 && parent.compareAndSet(u, 0, v)) {
+                            claimed(u, v);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Every unvisited vertex in range looks for a parent in the frontier;
+        // only this task writes these vertices, so no claim can race
+        private void bottomUpStep() {
+            int first = Math.max(lo << 6, 1);
+            int last = Math.min(hi << 6, V + 1);
+            for (int u = first; u < last; ++u) {
+                if (parent.get(u) != 0) {
+                    continue;
+                }
+                for (int i = offset[u]; i < offset[u + 1]; ++i) {
+                    int v = target[i];
+                    if ((frontier[v >> 6] & (1L << v)) != 0) {
+                        parent.set(u, v);
+                        claimed(u, v);
+                        break;
+                    }
+                }
+            }
+        }
     }
 }
 
@@ -348,6 +519,10 @@ class Graph {
 public class GraphLists {
     // Main method for execution
     public static void main(String[] args) throws IOException {
+        Options opts = new Options(args); // e.g. --heap=quad --trace=summary --bfs=parallel --threads=8
+        HeapType heapType = HeapType.parse(opts.get("heap", "binary"));
+        Trace trace = Trace.parse(opts.get("trace", "step"));
+
         Scanner sc = new Scanner(System.in);
         String fname; // Filename for graph definition
         System.out.print("\nInput name of file with graph definition: ");
@@ -356,25 +531,36 @@ public class GraphLists {
         System.out.print("\nInput the number of the vertex you want to start at: ");
         int s = sc.nextInt(); // Taking starting vertex input from user
 
-        Graph g = new Graph(fname); // Creating graph object from the input file
+        Graph g = new Graph(fname, trace); // Creating graph object from the input file
 
-        g.display(); // Displaying the graph
+        if (trace.steps()) {
+            g.display(); // Displaying the graph
 
-        System.out.println();
+            System.out.println();
 
-        System.out.print("Depth first using recursion:");
+            System.out.print("Depth first using an explicit stack:");
+        }
 
         g.DF(s); // Performing Depth First Traversal
 
-        System.out.println("MST using Prim's Algorithm:\n");
+        if (trace.summary())
+            System.out.println("MST using Prim's Algorithm:\n");
 
-        g.MST_Prim(s); // Finding Minimum Spanning Tree using Prim's Algorithm
+        g.MST_Prim(s, heapType); // Finding Minimum Spanning Tree using Prim's Algorithm
 
-        g.showMST(); // Displaying the MST
+        if (trace.summary())
+            g.showMST(); // Displaying the MST
 
-        System.out.print("Breadth first:");
+        if (trace.steps())
+            System.out.print("Breadth first:");
 
-        g.BF(s); // Performing Breadth First Traversal
+        if (opts.get("bfs", "serial").equalsIgnoreCase("parallel")) {
+            ForkJoinPool pool = new ForkJoinPool(opts.getInt("threads", Runtime.getRuntime().availableProcessors()));
+            g.BF_Parallel(s, pool); // Performing parallel Breadth First Search
+            pool.shutdown();
+        } else {
+            g.BF(s); // Performing Breadth First Traversal
+        }
 
         sc.close(); // Closing scanner object
     }
@@ -1,9 +1,21 @@
 // Kruskal's Minimum Spanning Tree Algorithm
-// Union-find implemented using disjoint set trees without compression
+// Union-find implemented using disjoint set trees with union by rank and path compression
 package Kruskals; // When reviewing code you may have to change this line when downloading on your own machine
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import Common.BinaryHeap;
+import Common.EdgeList;
+import Common.GraphLoader;
+import Common.IntQueue;
+import Common.Options;
+import Common.Trace;
 
 class Edge {
     public int u, v, wgt;
@@ -20,83 +32,28 @@ class Edge {
         wgt = w;
     }
 
-    public void show() {
-        System.out.print("Edge " + toChar(u) + "--" + wgt + "--" + toChar(v) + "\n");
-    }
-
-    // convert vertex into char for pretty printing
-    private char toChar(int u) {
-        return (char) (u + 64);
-    }
-}
-
-class Heap {
-    private int[] h;
-    int N, Nmax;
-    Edge[] edge;
-
-    // Bottom up heap construction
-    public Heap(int _N, Edge[] _edge) {
-        int i;
-        Nmax = N = _N;
-        h = new int[N + 1];
-        edge = _edge;
-
-        // initially just fill heap array with
-        // indices of edge[] array.
-        for (i = 0; i <= N; ++i)
-            h[i] = i;
-
-        // Then convert h[] into a heap
-        // from the bottom up.
-        for (i = N / 2; i > 0; --i)
-            siftDown(i);
-    }
-
-    private void siftDown(int k) {
-        int e, j;
-
-        e = h[k];
-        while (k <= N / 2) {
-
-            j = 2 * k;
-
-            if (j < N && edge[h[j]].wgt > edge[h[j + 1]].wgt) {
-                j++;
-            }
-
-            if (edge[e].wgt < edge[h[j]].wgt) {
-                break;
-            }
-
-            h[k] = h[j];
-            k = j;
-        }
-        h[k] = e;
-    }
-
-    public int remove() {
-        h[0] = h[1];
-        h[1] = h[N--];
-        siftDown(1);
-        return h[0];
+    public void show(int V) {
+        System.out.print("Edge " + Trace.label(u, V) + "--" + wgt + "--" + Trace.label(v, V) + "\n");
     }
 }
 
 /****************************************************
  *
  * UnionFind partition to support union-find operations
- * Implemented simply using Discrete Set Trees
+ * Implemented using Discrete Set Trees with union by rank
+ * and path compression, both without recursion
  *
  *****************************************************/
 
 class UnionFindSets {
     private int[] treeParent;
+    private byte[] rank; // upper bound on the height of each root's tree
     private int N;
 
     public UnionFindSets(int V) {
         N = V;
         treeParent = new int[V + 1];
+        rank = new byte[V + 1];
 
         for (int i = 1; i <= V; i++) {
             treeParent[i] = i;
@@ -105,18 +62,36 @@ class UnionFindSets {
     }
 
     public int findSet(int vertex) {
-        if (treeParent[vertex] == vertex) {
-            return vertex;
-        } else {
-            return findSet(treeParent[vertex]);
-        }
+        int root = vertex;
+        while (treeParent[root] != root)
+            root = treeParent[root];
 
+        // second pass points every vertex on the path straight at the root
+        while (treeParent[vertex] != root) {
+            int next = treeParent[vertex];
+            treeParent[vertex] = root;
+            vertex = next;
+        }
+        return root;
     }
 
-    public void union(int set1, int set2) {
+    // joins the sets holding set1 and set2, hanging the shallower tree
+    // under the deeper one; returns false if they were already one set
+    public boolean union(int set1, int set2) {
         int x = findSet(set1);
         int y = findSet(set2);
+        if (x == y)
+            return false;
+
+        if (rank[x] < rank[y]) {
+            int t = x;
+            x = y;
+            y = t;
+        } else if (rank[x] == rank[y]) {
+            ++rank[x];
+        }
         treeParent[y] = x;
+        return true;
     }
 
     public void showTrees() {
@@ -126,31 +101,437 @@ class UnionFindSets {
         System.out.print("\n");
     }
 
+    // prints every set in O(V): each vertex is found once and threaded
+    // onto a list for its root, then the lists are printed in the order
+    // their roots are first met
     public void showSets() {
         int u, root;
-        int[] shown = new int[N + 1];
+        int[] first = new int[N + 1]; // first member of each root's set
+        int[] next = new int[N + 1]; // next member of the same set
+        int[] rootOf = new int[N + 1];
+
+        for (u = N; u >= 1; --u) {
+            root = rootOf[u] = findSet(u);
+            next[u] = first[root];
+            first[root] = u;
+        }
+
         for (u = 1; u <= N; ++u) {
-            root = findSet(u);
-            if (shown[root] != 1) {
-                showSet(root);
-                shown[root] = 1;
-            }
+            root = rootOf[u];
+            if (first[root] == u)
+                showSet(first[root], next);
         }
         System.out.print("\n");
     }
 
-    private void showSet(int root) {
-        int v;
+    private void showSet(int member, int[] next) {
         System.out.print("Set{");
-        for (v = 1; v <= N; ++v)
-            if (findSet(v) == root)
-                System.out.print(toChar(v) + " ");
+        for (; member != 0; member = next[member])
+            System.out.print(toChar(member) + " ");
         System.out.print("}  ");
 
     }
 
-    private char toChar(int u) {
-        return (char) (u + 64);
+    private String toChar(int u) {
+        return Trace.label(u, N);
+    }
+}
+
+/****************************************************
+ *
+ * Lock-free disjoint set trees. Roots are always
+ * linked beneath the larger-numbered root with a
+ * compare-and-set, so racing unions can never build
+ * a cycle; finds halve the path as they go.
+ *
+ *****************************************************/
+
+class ConcurrentUnionFind {
+    private AtomicIntegerArray treeParent;
+
+    public ConcurrentUnionFind(int V) {
+        treeParent = new AtomicIntegerArray(V + 1);
+        for (int i = 1; i <= V; i++)
+            treeParent.set(i, i);
+    }
+
+    public int findSet(int vertex) {
+        int p = treeParent.get(vertex);
+        while (p != vertex) {
+            // path halving, a lost race only means less compression
+            int gp = treeParent.get(p);
+            treeParent.compareAndSet(vertex, p, gp);
+            vertex = gp;
+            p = treeParent.get(vertex);
+        }
+        return vertex;
+    }
+
+    // joins the sets holding set1 and set2; returns true for exactly
+    // one of any number of threads merging the same two sets
+    public boolean union(int set1, int set2) {
+        while (true) {
+            int x = findSet(set1);
+            int y = findSet(set2);
+            if (x == y)
+                return false;
+
+            if (x < y) {
+                int t = x;
+                x = y;
+                y = t;
+            }
+            if (treeParent.compareAndSet(y, y, x))
+                return true;
+        }
+    }
+}
+
+/**********************************************************
+ *
+ * Each round every component picks its cheapest outgoing
+ * edge and all of those edges are added at once, so the
+ * number of components at least halves per round.
+ * Both phases of a round are split over fork-join tasks:
+ * scanning edge ranges for each component's cheapest edge
+ * (an atomic min on a packed weight/index key), then
+ * contracting components through a lock-free union-find.
+ * Keys break weight ties by edge index, which makes the
+ * chosen edges a forest and the result match Kruskal.
+ *
+ **********************************************************/
+
+class Boruvka {
+    private static final int GRAIN = 4096; // edges or vertices per task
+
+    private int V, E;
+    private Edge[] edge; // edges 1..E
+    private int[] live; // edge indices still joining two components, 0 once dead
+    private AtomicLongArray cheapest; // per root, packed (wgt, edge index)
+    private ConcurrentUnionFind partition;
+    private AtomicInteger nTaken;
+    private int[] taken; // indices of MST edges in the order they were added
+
+    public Boruvka(int _V, int _E, Edge[] _edge) {
+        V = _V;
+        E = _E;
+        edge = _edge;
+    }
+
+    // returns the MST (or forest) edges lightest first
+    public Edge[] run(ForkJoinPool pool) {
+        live = new int[E];
+        for (int e = 1; e <= E; ++e)
+            live[e - 1] = e;
+
+        cheapest = new AtomicLongArray(V + 1);
+        partition = new ConcurrentUnionFind(V);
+        nTaken = new AtomicInteger();
+        taken = new int[Math.max(V - 1, 0)];
+
+        int before;
+        do {
+            before = nTaken.get();
+            pool.invoke(new ResetTask(1, V + 1));
+            pool.invoke(new CheapestTask(0, E));
+            pool.invoke(new ContractTask(1, V + 1));
+        } while (nTaken.get() > before && nTaken.get() < V - 1);
+
+        // lightest first, ties by edge index, the order Kruskal adds them in
+        int n = nTaken.get();
+        long[] keys = new long[n];
+        for (int i = 0; i < n; ++i)
+            keys[i] = key(taken[i]);
+        Arrays.sort(keys);
+
+        Edge[] mst = new Edge[n];
+        for (int i = 0; i < n; ++i)
+            mst[i] = edge[(int) keys[i]];
+        return mst;
+    }
+
+    private long key(int e) {
+        return (long) edge[e].wgt << 32 | e;
+    }
+
+    // phase 0: forget last round's choices
+    private class ResetTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private int lo, hi;
+
+        ResetTask(int _lo, int _hi) {
+            lo = _lo;
+            hi = _hi;
+        }
+
+        protected void compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new ResetTask(lo, mid), new ResetTask(mid, hi));
+                return;
+            }
+            for (int v = lo; v < hi; ++v)
+                cheapest.set(v, Long.MAX_VALUE);
+        }
+    }
+
+    // phase 1: offer every live edge to the components at both its ends
+    private class CheapestTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private int lo, hi;
+
+        CheapestTask(int _lo, int _hi) {
+            lo = _lo;
+            hi = _hi;
+        }
+
+        protected void compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new CheapestTask(lo, mid), new CheapestTask(mid, hi));
+                return;
+            }
+            for (int k = lo; k < hi; ++k) {
+                int e = live[k];
+                if (e == 0)
+                    continue;
+
+                int ru = partition.findSet(edge[e].u);
+                int rv = partition.findSet(edge[e].v);
+                if (ru == rv) {
+                    live[k] = 0; // inside one component for good
+                    continue;
+                }
+                long ke = key(e);
+                offer(ru, ke);
+                offer(rv, ke);
+            }
+        }
+
+        private void offer(int root, long ke) {
+            long cur = cheapest.get(root);
+            while (ke < cur && !cheapest.compareAndSet(root, cur, ke))
+                cur = cheapest.get(root);
+        }
+    }
+
+    // phase 2: every root adds its cheapest edge; when both ends chose the
+    // same edge only one union succeeds, so it is taken once
+    private class ContractTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private int lo, hi;
+
+        ContractTask(int _lo, int _hi) {
+            lo = _lo;
+            hi = _hi;
+        }
+
+        protected void compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new ContractTask(lo, mid), new ContractTask(mid, hi));
+                return;
+            }
+            for (int v = lo; v < hi; ++v) {
+                long ke = cheapest.get(v);
+                if (ke == Long.MAX_VALUE)
+                    continue;
+
+                int e = (int) ke;
+                if (partition.union(edge[e].u, edge[e].v))
+                    taken[nTaken.getAndIncrement()] = e;
+            }
+        }
+    }
+}
+
+/**********************************************************
+ *
+ * Connected components: fork-join tasks union the ends
+ * of every edge in a ConcurrentUnionFind, then the roots
+ * are numbered 0..count-1 in order of their smallest
+ * vertex, so the numbering does not depend on how the
+ * threads happened to run.
+ *
+ **********************************************************/
+
+class ConnectedComponents {
+    private static final int GRAIN = 4096; // edges per task
+
+    private int V, E;
+    private Edge[] edge; // edges 1..E
+    private ConcurrentUnionFind partition;
+
+    public int count; // number of components
+    public int[] component; // component of each vertex, 0..count-1
+    public int[] size; // vertices in each component
+
+    public ConnectedComponents(int _V, int _E, Edge[] _edge) {
+        V = _V;
+        E = _E;
+        edge = _edge;
+    }
+
+    public int[] run(ForkJoinPool pool) {
+        partition = new ConcurrentUnionFind(V);
+        pool.invoke(new UnionTask(1, E + 1));
+
+        // label[r] is 1 + the number given to root r, 0 until it has one
+        int[] label = new int[V + 1];
+        component = new int[V + 1];
+        count = 0;
+        for (int v = 1; v <= V; ++v) {
+            int r = partition.findSet(v);
+            if (label[r] == 0)
+                label[r] = ++count;
+            component[v] = label[r] - 1;
+        }
+
+        size = new int[count];
+        for (int v = 1; v <= V; ++v)
+            size[component[v]]++;
+        return component;
+    }
+
+    private class UnionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private int lo, hi;
+
+        UnionTask(int _lo, int _hi) {
+            lo = _lo;
+            hi = _hi;
+        }
+
+        protected void compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new UnionTask(lo, mid), new UnionTask(mid, hi));
+                return;
+            }
+            for (int e = lo; e < hi; ++e)
+                partition.union(edge[e].u, edge[e].v);
+        }
+    }
+}
+
+/**********************************************************
+ *
+ * Minimum spanning forest, one tree per component. The
+ * components are found first and the edges grouped by
+ * component, then fork-join tasks each run Kruskal on a
+ * run of components. Components share no vertices, so
+ * the tasks can share one UnionFindSets without ever
+ * touching the same entries.
+ *
+ **********************************************************/
+
+class SpanningForest {
+    private static final int GRAIN = 4096; // edges per task
+
+    private int V, E;
+    private Edge[] edge; // edges 1..E
+    private int[] byComponent; // edge indices grouped by component
+    private int[] start; // edges of component c at byComponent[start[c] .. start[c+1]-1]
+    private UnionFindSets partition;
+
+    public int count; // number of components, and so of trees
+    public int[] component; // component of each vertex, 0..count-1
+    public Edge[][] trees; // tree edges of each component, lightest first
+    public long[] weights; // weight of each tree
+
+    public SpanningForest(int _V, int _E, Edge[] _edge) {
+        V = _V;
+        E = _E;
+        edge = _edge;
+    }
+
+    public Edge[][] run(ForkJoinPool pool) {
+        ConnectedComponents cc = new ConnectedComponents(V, E, edge);
+        component = cc.run(pool);
+        count = cc.count;
+
+        // counting sort of the edges by component
+        start = new int[count + 1];
+        for (int e = 1; e <= E; ++e)
+            start[component[edge[e].u] + 1]++;
+        for (int c = 0; c < count; ++c)
+            start[c + 1] += start[c];
+        byComponent = new int[E];
+        int[] fill = Arrays.copyOf(start, count);
+        for (int e = 1; e <= E; ++e)
+            byComponent[fill[component[edge[e].u]]++] = e;
+
+        trees = new Edge[count][];
+        weights = new long[count];
+        partition = new UnionFindSets(V);
+        for (int c = 0; c < count; ++c)
+            trees[c] = new Edge[cc.size[c] - 1];
+        pool.invoke(new TreeTask(0, count));
+        return trees;
+    }
+
+    // Kruskal on the edges of component c, sorted as packed keys
+    private void kruskal(int c) {
+        int n = start[c + 1] - start[c];
+        long[] keys = new long[n];
+        for (int k = 0; k < n; ++k) {
+            int e = byComponent[start[c] + k];
+            keys[k] = (long) edge[e].wgt << 32 | e;
+        }
+        Arrays.sort(keys);
+
+        Edge[] tree = trees[c];
+        int nTree = 0;
+        for (int k = 0; k < n && nTree < tree.length; ++k) {
+            Edge ed = edge[(int) keys[k]];
+            if (partition.union(ed.u, ed.v)) {
+                tree[nTree++] = ed;
+                weights[c] += ed.wgt;
+            }
+        }
+    }
+
+    // builds the trees of components [lo, hi)
+    private class TreeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private int lo, hi;
+
+        TreeTask(int _lo, int _hi) {
+            lo = _lo;
+            hi = _hi;
+        }
+
+        protected void compute() {
+            if (hi - lo > 1 && start[hi] - start[lo] > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new TreeTask(lo, mid), new TreeTask(mid, hi));
+                return;
+            }
+            for (int c = lo; c < hi; ++c)
+                kruskal(c);
+        }
+    }
+}
+
+// how MST_Kruskal puts the edges into weight order
+enum KruskalMode {
+    HEAP, // pop from a heap, cheap when the MST closes after a short prefix
+    SORT, // parallel sort of packed edge keys, uses every core on big inputs
+    FILTER; // Filter-Kruskal, drops heavy edges inside one set before sorting
+
+    // mode named by --kruskal, in any case
+    static KruskalMode parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown Kruskal mode '" + name + "', expected one of "
+                    + Arrays.toString(values()));
+        }
     }
 }
 
@@ -158,47 +539,45 @@ class Graph {
     private int V, E;
     private Edge[] edge;
     private Edge[] mst;
+    private int nMst; // number of edges in mst[] so far
+    private Trace trace; // how much to print while working
 
     public Graph(String graphFile) throws IOException {
+        this(graphFile, Trace.STEP);
+    }
+
+    public Graph(String graphFile, Trace _trace) throws IOException {
         int u, v;
         int w, e;
+        trace = _trace;
 
-        FileReader fr = new FileReader(graphFile);
-        BufferedReader reader = new BufferedReader(fr);
+        EdgeList in = GraphLoader.load(graphFile);
+        if (trace.summary())
+            trace.out.println("Parts[] = " + in.V + " " + in.E);
 
-        try {
-            String splits = " +"; // multiple whitespace as delimiter
-            String line = reader.readLine();
-            String[] parts = line.split(splits);
-            System.out.println("Parts[] = " + parts[0] + " " + parts[1]);
-
-            V = Integer.parseInt(parts[0]);
-            E = Integer.parseInt(parts[1]);
-
-            // create edge array
-            edge = new Edge[E + 1];
-
-            // read the edges
-            System.out.println("Reading edges from text file");
-            for (e = 1; e <= E; ++e) {
-                line = reader.readLine();
-                parts = line.split(splits);
-                u = Integer.parseInt(parts[0]);
-                v = Integer.parseInt(parts[1]);
-                w = Integer.parseInt(parts[2]);
-
-                System.out.println("Edge " + toChar(u) + "--(" + w + ")--" + toChar(v));
-
-                // create Edge object
-                Edge edges = new Edge(u, v, w);
-                edge[e] = edges;
-            }
-        } finally {
-            // Close the reader in the finally block to ensure it gets closed
-            if (reader != null) {
-                reader.close();
-            }
+        V = in.V;
+        E = in.E;
+
+        // create edge array
+        edge = new Edge[E + 1];
+
+        // wrap the loaded edges
+        if (trace.summary())
+            trace.out.println("Reading edges from text file");
+        for (e = 1; e <= E; ++e) {
+            u = in.u[e - 1];
+            v = in.v[e - 1];
+            w = in.w[e - 1];
+
+            if (trace.steps())
+                trace.out.println("Edge " + toChar(u) + "--(" + w + ")--" + toChar(v));
+
+            // create Edge object
+            Edge edges = new Edge(u, v, w);
+            edge[e] = edges;
         }
+        if (trace.summary())
+            trace.out.println(in.loadSummary());
     }
 
     /**********************************************************
@@ -207,17 +586,16 @@ class Graph {
      *
      **********************************************************/
     public Edge[] MST_Kruskal() {
-        int ei, i = 0;
-        int uSet, vSet;
+        return MST_Kruskal(KruskalMode.HEAP);
+    }
+
+    public Edge[] MST_Kruskal(KruskalMode mode) {
         UnionFindSets partition;
-        UnionFindSets parts;
 
         // create edge array to store MST
         // Initially it has no edges.
-        mst = new Edge[V - 1];
-
-        // priority queue for indices of array of edges
-        Heap h = new Heap(E, edge);
+        mst = new Edge[Math.max(V - 1, 0)];
+        nMst = 0;
 
         // create partition of singleton sets for the vertices
         partition = new UnionFindSets(V);
@@ -225,50 +603,226 @@ class Graph {
         // partition.showSet();
         // partition.showTrees();
 
-        parts = new UnionFindSets(V);
+        if (trace.steps()) {
+            UnionFindSets parts = new UnionFindSets(V); // only for the trace
+            trace.out.println("");
+            trace.out.println("Kruskals Edges, Show Sets and Show Trees");
+            partition.showSets();
+            parts.showTrees();
+        }
+
+        if (mode == KruskalMode.SORT)
+            sweepSorted(partition);
+        else if (mode == KruskalMode.FILTER)
+            sweepFiltered(partition);
+        else
+            sweepHeap(partition);
+
+        // a disconnected graph leaves a forest with fewer edges
+        if (nMst < mst.length)
+            mst = Arrays.copyOf(mst, nMst);
+        return mst;
+    }
 
-        System.out.println("");
-        System.out.println("Kruskals Edges, Show Sets and Show Trees");
-        partition.showSets();
-        parts.showTrees();
+    // pops edges lightest first from a heap built bottom up in O(E), so
+    // only the prefix of edges that the MST actually needs is ordered
+    private void sweepHeap(UnionFindSets partition) {
+        int[] wgt = new int[E + 1];
+        for (int e = 1; e <= E; ++e)
+            wgt[e] = edge[e].wgt;
+        BinaryHeap h = new BinaryHeap(E, wgt);
+        h.insertAll(E);
 
         for (int z = 0; z < E; ++z) {
-            ei = h.remove();
+            if (takeEdge(h.remove(), partition))
+                break;
+        }
+    }
 
-            uSet = edge[ei].u;
-            vSet = edge[ei].v;
+    // sorts all edges up front with a parallel sort; each edge is packed
+    // into one long, weight in the high half and edge index in the low
+    // half, so the sort compares primitives and ties keep file order
+    private void sweepSorted(UnionFindSets partition) {
+        long[] keys = new long[E];
+        for (int e = 1; e <= E; ++e)
+            keys[e - 1] = (long) edge[e].wgt << 32 | e;
 
-            int part1 = partition.findSet(uSet);
-            int part2 = partition.findSet(vSet);
-            // partition.showSets();
-            // parts.showTrees();
+        Arrays.parallelSort(keys);
 
-            if (part1 != part2) {
-                mst[i++] = edge[ei];
-                partition.union(uSet, vSet);
-                System.out.println("\nReading edge " + edge[ei].wgt + " connecting the vertices " + toChar(uSet)
-                        + " and " + toChar(vSet));
+        for (int z = 0; z < E; ++z) {
+            if (takeEdge((int) keys[z], partition))
+                break;
+        }
+    }
+
+    // Filter-Kruskal: partition the edges around a pivot weight like
+    // quicksort, take the light side first, then the edges equal to the
+    // pivot, then throw away every heavy edge whose ends are already in
+    // one set before going on to sort it. With E much bigger than V most
+    // heavy edges go without being sorted.
+    private void sweepFiltered(UnionFindSets partition) {
+        int[] idx = new int[E];
+        for (int e = 1; e <= E; ++e)
+            idx[e - 1] = e;
+
+        filterKruskal(idx, 0, E, partition, new Random(E));
+    }
+
+    private static final int FILTER_CUTOFF = 1024; // below this just sort
+
+    // runs Filter-Kruskal on idx[lo..hi), returning true once the MST is
+    // complete; edges of equal weight are taken in index order, so edges
+    // are taken in the same order as in SORT mode
+    private boolean filterKruskal(int[] idx, int lo, int hi, UnionFindSets partition, Random rnd) {
+        if (hi - lo > FILTER_CUTOFF) {
+            int pivot = edge[idx[lo + rnd.nextInt(hi - lo)]].wgt;
 
+            // three way split: idx[lo..lt) < pivot, idx[lt..gt) == pivot,
+            // idx[gt..hi) > pivot; small weight ranges give big middle runs
+            int lt = lo, gt = hi;
+            for (int k = lo; k < gt;) {
+                int w = edge[idx[k]].wgt;
+                if (w < pivot) {
+                    int t = idx[k];
+                    idx[k++] = idx[lt];
+                    idx[lt++] = t;
+                } else if (w > pivot) {
+                    int t = idx[k];
+                    idx[k] = idx[--gt];
+                    idx[gt] = t;
+                } else {
+                    ++k;
+                }
             }
-            // parts.showTrees();
-            partition.showSets();
 
-            if (i == V - 1)
-                break;
+            if (filterKruskal(idx, lo, lt, partition, rnd))
+                return true;
+
+            // the pivot's run needs no sorting by weight, only by index
+            int keep = filter(idx, lt, gt, partition);
+            Arrays.sort(idx, lt, keep);
+            for (int k = lt; k < keep; ++k) {
+                if (takeEdge(idx[k], partition))
+                    return true;
+            }
+
+            return filterKruskal(idx, gt, filter(idx, gt, hi, partition), partition, rnd);
         }
 
+        long[] keys = new long[hi - lo];
+        for (int k = lo; k < hi; ++k)
+            keys[k - lo] = (long) edge[idx[k]].wgt << 32 | idx[k];
+        Arrays.sort(keys);
+
+        for (long key : keys) {
+            if (takeEdge((int) key, partition))
+                return true;
+        }
+        return false;
+    }
+
+    // moves the edges of idx[lo..hi) that still join two sets to
+    // the front, returning the end of the ones kept
+    private int filter(int[] idx, int lo, int hi, UnionFindSets partition) {
+        int keep = lo;
+        for (int k = lo; k < hi; ++k) {
+            int ei = idx[k];
+            if (partition.findSet(edge[ei].u) != partition.findSet(edge[ei].v))
+                idx[keep++] = ei;
+        }
+        return keep;
+    }
+
+    // adds edge ei to the MST if it joins two different sets,
+    // returning true once the tree is complete
+    private boolean takeEdge(int ei, UnionFindSets partition) {
+        int uSet = edge[ei].u;
+        int vSet = edge[ei].v;
+
+        if (partition.union(uSet, vSet)) {
+            mst[nMst++] = edge[ei];
+            if (trace.steps())
+                trace.out.println("\nReading edge " + edge[ei].wgt + " connecting the vertices " + toChar(uSet)
+                        + " and " + toChar(vSet));
+
+        }
+        // parts.showTrees();
+        if (trace.steps())
+            partition.showSets();
+
+        return nMst == V - 1;
+    }
+
+    /**********************************************************
+     *
+     * Boruvka's minimum spanning tree algorithm, run on the
+     * given pool; gives the same edges as MST_Kruskal
+     *
+     **********************************************************/
+    public Edge[] MST_Boruvka(ForkJoinPool pool) {
+        mst = new Boruvka(V, E, edge).run(pool);
+        nMst = mst.length;
+
         return mst;
     }
 
+    /**********************************************************
+     *
+     * connected components of the graph, found on the given
+     * pool
+     *
+     **********************************************************/
+    public ConnectedComponents components(ForkJoinPool pool) {
+        ConnectedComponents cc = new ConnectedComponents(V, E, edge);
+        cc.run(pool);
+        return cc;
+    }
+
+    /**********************************************************
+     *
+     * minimum spanning forest, one tree per component built
+     * concurrently on the given pool; the trees together
+     * become the MST that showMST and getMSTWeight report
+     *
+     **********************************************************/
+    public SpanningForest MST_Forest(ForkJoinPool pool) {
+        SpanningForest forest = new SpanningForest(V, E, edge);
+        forest.run(pool);
+
+        mst = new Edge[V - forest.count];
+        nMst = 0;
+        for (Edge[] tree : forest.trees) {
+            System.arraycopy(tree, 0, mst, nMst, tree.length);
+            nMst += tree.length;
+        }
+        return forest;
+    }
+
+    // a DynamicMST starting from the tree found by the last MST_Kruskal
+    // or MST_Boruvka, for following later edge changes
+    public DynamicMST dynamicMST() {
+        if (mst == null)
+            throw new IllegalStateException("find the MST before making it dynamic");
+        return new DynamicMST(V, edge, E, mst, nMst);
+    }
+
+    // total weight of the MST found by the last MST_Kruskal or MST_Boruvka
+    public long getMSTWeight() {
+        long sum = 0;
+        for (int e = 0; e < nMst; ++e)
+            sum += mst[e].wgt;
+        return sum;
+    }
+
     // convert vertex into char for pretty printing
-    private char toChar(int u) {
-        return (char) (u + 64);
+    private String toChar(int u) {
+        return Trace.label(u, V);
     }
 
     public void showMST() {
         System.out.print("\nMinimum spanning tree build from following edges:\n");
-        for (int e = 0; e < V - 1; ++e) {
-            mst[e].show();
+        for (int e = 0; e < nMst; ++e) {
+            mst[e].show(V);
         }
         System.out.println();
 
@@ -276,20 +830,540 @@ class Graph {
 
 } // end of Graph class
 
+/**********************************************************
+ *
+ * Minimum spanning forest kept up to date while edges
+ * come and go, so a few changes cost far less than a
+ * new MST_Kruskal. The forest lives in a link-cut tree
+ * in which every tree edge is a node of its own between
+ * its two vertices, carrying the edge weight, so the
+ * heaviest edge on any tree path is found in amortised
+ * O(log V).
+ *
+ *   insert, lower weight - if the edge closes a cycle
+ *       and is lighter than the heaviest edge on it,
+ *       it replaces that edge: O(log V)
+ *   delete, raise weight of a tree edge - the edge is
+ *       cut, then the lightest edge across the cut is
+ *       found by growing both halves in turn and
+ *       scanning the edges of whichever half finishes
+ *       first: O(edges at the smaller half)
+ *   anything else only updates the edge's weight
+ *
+ * Edges keep the numbers they have in Graph.edge[];
+ * inserted edges are numbered on from E.
+ *
+ **********************************************************/
+
+class DynamicMST {
+    private int V;
+    private int m; // edges numbered 1..m, deleted ones included
+    private int[] eu, ev, ew;
+    private boolean[] alive, inTree;
+    private int[][] inc; // edges at each vertex, deleted ones dropped lazily
+    private int[] nInc;
+    private long total; // weight of the forest
+    private int nTree; // edges in the forest
+
+    // link-cut tree over vertex nodes 1..V and edge nodes V+1..V+m
+    private int[] left, right, up, best;
+    private boolean[] flip;
+    private int[] stack = new int[64]; // splay path, for pushing flips down
+
+    // scratch for replacement searches
+    private int[] mark;
+    private int round;
+    private IntQueue qa, qb;
+
+    public DynamicMST(int _V, Edge[] edge, int E, Edge[] mst, int nMst) {
+        V = _V;
+        int cap = Math.max(E, 16);
+        eu = new int[cap + 1];
+        ev = new int[cap + 1];
+        ew = new int[cap + 1];
+        alive = new boolean[cap + 1];
+        inTree = new boolean[cap + 1];
+        inc = new int[V + 1][];
+        nInc = new int[V + 1];
+        for (int v = 1; v <= V; ++v)
+            inc[v] = new int[4];
+        growNodes(V + cap + 1);
+        mark = new int[V + 1];
+        qa = new IntQueue(V);
+        qb = new IntQueue(V);
+
+        for (int e = 1; e <= E; ++e)
+            add(edge[e].u, edge[e].v, edge[e].wgt);
+
+        // the given forest goes in as it is; mst[] holds the
+        // same Edge objects as edge[], so match by identity
+        Set<Edge> given = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < nMst; ++i)
+            given.add(mst[i]);
+        for (int e = 1; e <= E; ++e)
+            if (given.contains(edge[e]))
+                link(e);
+    }
+
+    public long weight() {
+        return total;
+    }
+
+    public int treeEdges() {
+        return nTree;
+    }
+
+    public boolean inTree(int e) {
+        return alive[e] && inTree[e];
+    }
+
+    // number of an edge joining u and v, 0 if there is none
+    public int find(int u, int v) {
+        for (int i = 0; i < nInc[u]; ++i) {
+            int e = inc[u][i];
+            if (alive[e] && (eu[e] == v || ev[e] == v))
+                return e;
+        }
+        return 0;
+    }
+
+    // adds the edge u--v and returns its number
+    public int insert(int u, int v, int w) {
+        if (u < 1 || u > V || v < 1 || v > V)
+            throw new IllegalArgumentException("edge " + u + "--" + v + " has an end outside 1.." + V);
+        int e = add(u, v, w);
+        offer(e);
+        return e;
+    }
+
+    public void delete(int e) {
+        checkEdge(e);
+        alive[e] = false;
+        if (inTree[e])
+            replace(e);
+    }
+
+    public void setWeight(int e, int w) {
+        checkEdge(e);
+        int old = ew[e];
+        if (w == old)
+            return;
+
+        if (inTree[e]) {
+            access(V + e);
+            ew[e] = w;
+            pull(V + e);
+            total += w - old;
+            // a lighter tree edge stays in the tree, a heavier one
+            // may have to give way
+            if (w > old)
+                replace(e);
+        } else {
+            ew[e] = w;
+            if (w < old)
+                offer(e);
+        }
+    }
+
+    // the edges of the forest in edge number order
+    public Edge[] edges() {
+        Edge[] out = new Edge[nTree];
+        int n = 0;
+        for (int e = 1; e <= m; ++e)
+            if (alive[e] && inTree[e])
+                out[n++] = new Edge(eu[e], ev[e], ew[e]);
+        return out;
+    }
+
+    private void checkEdge(int e) {
+        if (e < 1 || e > m || !alive[e])
+            throw new IllegalArgumentException("no edge numbered " + e);
+    }
+
+    // records a new edge, outside the forest
+    private int add(int u, int v, int w) {
+        if (++m == eu.length) {
+            int cap = 2 * m;
+            eu = Arrays.copyOf(eu, cap);
+            ev = Arrays.copyOf(ev, cap);
+            ew = Arrays.copyOf(ew, cap);
+            alive = Arrays.copyOf(alive, cap);
+            inTree = Arrays.copyOf(inTree, cap);
+            growNodes(V + cap);
+        }
+        eu[m] = u;
+        ev[m] = v;
+        ew[m] = w;
+        alive[m] = true;
+        best[V + m] = V + m;
+        attach(u, m);
+        if (v != u)
+            attach(v, m);
+        return m;
+    }
+
+    private void attach(int v, int e) {
+        if (nInc[v] == inc[v].length) {
+            // drop deleted edges before growing
+            int n = 0;
+            for (int i = 0; i < nInc[v]; ++i)
+                if (alive[inc[v][i]])
+                    inc[v][n++] = inc[v][i];
+            nInc[v] = n;
+            if (n == inc[v].length)
+                inc[v] = Arrays.copyOf(inc[v], 2 * n);
+        }
+        inc[v][nInc[v]++] = e;
+    }
+
+    // puts non-tree edge e in the forest if it joins two trees or
+    // is lighter than the heaviest edge on the cycle it closes
+    private void offer(int e) {
+        int u = eu[e], v = ev[e];
+        if (u == v)
+            return;
+        if (!connected(u, v)) {
+            link(e);
+            return;
+        }
+        int heaviest = pathMax(u, v) - V;
+        if (ew[heaviest] > ew[e]) {
+            cut(heaviest);
+            link(e);
+        }
+    }
+
+    // takes tree edge e out and reconnects its two halves with the
+    // lightest live non-tree edge across them, which may be e itself
+    // when its weight has only gone up
+    private void replace(int e) {
+        cut(e);
+        int a = eu[e], b = ev[e];
+
+        // grow both halves one vertex at a time until one is done
+        round += 2;
+        qa.clear();
+        qb.clear();
+        qa.add(a);
+        qb.add(b);
+        mark[a] = round;
+        mark[b] = round + 1;
+        int[] sa = new int[16], sb = new int[16];
+        int na = 0, nb = 0;
+        int done;
+        while (true) {
+            if (qa.isEmpty()) {
+                done = round;
+                break;
+            }
+            int x = qa.poll();
+            if (na == sa.length)
+                sa = Arrays.copyOf(sa, 2 * na);
+            sa[na++] = x;
+            grow(x, round, qa);
+
+            if (qb.isEmpty()) {
+                done = round + 1;
+                break;
+            }
+            int y = qb.poll();
+            if (nb == sb.length)
+                sb = Arrays.copyOf(sb, 2 * nb);
+            sb[nb++] = y;
+            grow(y, round + 1, qb);
+        }
+        int[] side = (done == round) ? sa : sb;
+        int nSide = (done == round) ? na : nb;
+        int other = (done == round) ? b : a;
+
+        // lightest edge from the finished half into the other one
+        int found = 0;
+        for (int i = 0; i < nSide; ++i) {
+            int x = side[i];
+            for (int k = 0; k < nInc[x]; ++k) {
+                int f = inc[x][k];
+                if (!alive[f] || inTree[f])
+                    continue;
+                int y = (eu[f] == x) ? ev[f] : eu[f];
+                if (mark[y] == done || (found != 0 && ew[f] >= ew[found]))
+                    continue;
+                if (mark[y] == (done ^ 1) || connected(y, other))
+                    found = f;
+            }
+        }
+        if (found != 0)
+            link(found);
+    }
+
+    // queues the unseen tree neighbours of x for the half marked m
+    private void grow(int x, int m, IntQueue q) {
+        for (int k = 0; k < nInc[x]; ++k) {
+            int f = inc[x][k];
+            if (!alive[f] || !inTree[f])
+                continue;
+            int y = (eu[f] == x) ? ev[f] : eu[f];
+            if (mark[y] != m) {
+                mark[y] = m;
+                q.add(y);
+            }
+        }
+    }
+
+    private void link(int e) {
+        makeRoot(eu[e]);
+        up[eu[e]] = V + e;
+        makeRoot(V + e);
+        up[V + e] = ev[e];
+        inTree[e] = true;
+        total += ew[e];
+        nTree++;
+    }
+
+    private void cut(int e) {
+        detach(eu[e], V + e);
+        detach(V + e, ev[e]);
+        inTree[e] = false;
+        total -= ew[e];
+        nTree--;
+    }
+
+    /*
+     * link-cut tree primitives; best[x] is the edge node of
+     * greatest weight in x's splay subtree, or x itself for a
+     * vertex node with nothing below it
+     */
+
+    private void growNodes(int n) {
+        int old = (left == null) ? 0 : left.length;
+        left = (left == null) ? new int[n] : Arrays.copyOf(left, n);
+        right = (right == null) ? new int[n] : Arrays.copyOf(right, n);
+        up = (up == null) ? new int[n] : Arrays.copyOf(up, n);
+        best = (best == null) ? new int[n] : Arrays.copyOf(best, n);
+        flip = (flip == null) ? new boolean[n] : Arrays.copyOf(flip, n);
+        for (int x = old; x < n; ++x)
+            best[x] = x;
+    }
+
+    private int value(int x) {
+        return (x > V) ? ew[x - V] : Integer.MIN_VALUE;
+    }
+
+    private boolean isRoot(int x) {
+        int p = up[x];
+        return p == 0 || (left[p] != x && right[p] != x);
+    }
+
+    private void pull(int x) {
+        int b = x;
+        if (left[x] != 0 && value(best[left[x]]) > value(b))
+            b = best[left[x]];
+        if (right[x] != 0 && value(best[right[x]]) > value(b))
+            b = best[right[x]];
+        best[x] = b;
+    }
+
+    private void push(int x) {
+        if (flip[x]) {
+            int t = left[x];
+            left[x] = right[x];
+            right[x] = t;
+            if (left[x] != 0)
+                flip[left[x]] ^= true;
+            if (right[x] != 0)
+                flip[right[x]] ^= true;
+            flip[x] = false;
+        }
+    }
+
+    private void rotate(int x) {
+        int p = up[x], g = up[p];
+        if (!isRoot(p)) {
+            if (left[g] == p)
+                left[g] = x;
+            else
+                right[g] = x;
+        }
+        up[x] = g;
+        if (left[p] == x) {
+            left[p] = right[x];
+            if (right[x] != 0)
+                up[right[x]] = p;
+            right[x] = p;
+        } else {
+            right[p] = left[x];
+            if (left[x] != 0)
+                up[left[x]] = p;
+            left[x] = p;
+        }
+        up[p] = x;
+        pull(p);
+        pull(x);
+    }
+
+    private void splay(int x) {
+        // push pending flips down from the splay root first
+        int n = 0;
+        for (int y = x;; y = up[y]) {
+            if (n == stack.length)
+                stack = Arrays.copyOf(stack, 2 * n);
+            stack[n++] = y;
+            if (isRoot(y))
+                break;
+        }
+        while (n > 0)
+            push(stack[--n]);
+
+        while (!isRoot(x)) {
+            int p = up[x];
+            if (!isRoot(p)) {
+                int g = up[p];
+                if ((left[g] == p) == (left[p] == x))
+                    rotate(p);
+                else
+                    rotate(x);
+            }
+            rotate(x);
+        }
+    }
+
+    private void access(int x) {
+        int last = 0;
+        for (int y = x; y != 0; y = up[y]) {
+            splay(y);
+            right[y] = last;
+            pull(y);
+            last = y;
+        }
+        splay(x);
+    }
+
+    private void makeRoot(int x) {
+        access(x);
+        flip[x] ^= true;
+    }
+
+    private int findRoot(int x) {
+        access(x);
+        int r = x;
+        push(r);
+        while (left[r] != 0) {
+            r = left[r];
+            push(r);
+        }
+        splay(r);
+        return r;
+    }
+
+    private boolean connected(int u, int v) {
+        return u == v || findRoot(u) == findRoot(v);
+    }
+
+    // removes the tree edge between adjacent nodes x and y
+    private void detach(int x, int y) {
+        makeRoot(x);
+        access(y);
+        // x is now y's left child with nothing else on the path
+        left[y] = 0;
+        up[x] = 0;
+        pull(y);
+    }
+
+    // edge node of greatest weight on the path between u and v
+    private int pathMax(int u, int v) {
+        makeRoot(u);
+        access(v);
+        return best[v];
+    }
+}
+
 // test code
 class KruskalTrees {
     public static void main(String[] args) throws IOException {
+        // e.g. --kruskal=sort or --mst=boruvka|forest --threads=8 --trace=summary --updates=changes.txt
+        Options opts = new Options(args);
+        Trace trace = Trace.parse(opts.get("trace", "step"));
+        KruskalMode mode = KruskalMode.parse(opts.get("kruskal", "heap"));
+        String algorithm = opts.get("mst", "kruskal").toLowerCase();
+        int threads = opts.getInt("threads", Runtime.getRuntime().availableProcessors());
 
         Scanner mstPrim = new Scanner(System.in);
         System.out.println("What is the name of the file ");
         String fname = "./" + mstPrim.nextLine();
 
-        Graph g = new Graph(fname);
+        Graph g = new Graph(fname, trace);
 
-        g.MST_Kruskal();
+        if (algorithm.equals("boruvka")) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            g.MST_Boruvka(pool);
+            pool.shutdown();
+        } else if (algorithm.equals("forest")) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            SpanningForest forest = g.MST_Forest(pool);
+            pool.shutdown();
 
-        g.showMST();
+            if (trace.summary())
+                System.out.println("\n" + forest.count + " connected components");
+            if (trace.steps())
+                for (int c = 0; c < forest.count; ++c)
+                    System.out.println("Component " + c + ": " + (forest.trees[c].length + 1) + " vertices, tree weight "
+                            + forest.weights[c]);
+        } else {
+            g.MST_Kruskal(mode);
+        }
+
+        if (trace.summary()) {
+            g.showMST();
+            System.out.println("TOTAL MST WEIGHT ->> " + g.getMSTWeight() + "\n");
+        }
+
+        if (opts.has("updates"))
+            applyUpdates(g.dynamicMST(), opts.get("updates", ""), trace);
         mstPrim.close();
 
     }
+
+    // replays a file of edge changes against the MST, one per line:
+    // "+ u v w" inserts an edge, "- u v" deletes one and "= u v w"
+    // gives one a new weight
+    private static void applyUpdates(DynamicMST dyn, String updateFile, Trace trace) throws IOException {
+        int n = 0, lineNo = 0;
+        long start = System.nanoTime();
+        try (BufferedReader in = new BufferedReader(new FileReader(updateFile))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                ++lineNo;
+                line = line.trim();
+                if (line.isEmpty())
+                    continue;
+                String[] parts = line.split(" +");
+                if (!parts[0].equals("+") && !parts[0].equals("-") && !parts[0].equals("="))
+                    throw new IOException(updateFile + ": line " + lineNo + ": unknown update '" + parts[0]
+                            + "', expected +, - or =");
+                int u = Integer.parseInt(parts[1]);
+                int v = Integer.parseInt(parts[2]);
+
+                if (parts[0].equals("+")) {
+                    dyn.insert(u, v, Integer.parseInt(parts[3]));
+                } else {
+                    int e = dyn.find(u, v);
+                    if (e == 0)
+                        throw new IOException(updateFile + ": line " + lineNo + ": no edge " + u + "--" + v + " to change");
+                    if (parts[0].equals("-"))
+                        dyn.delete(e);
+                    else
+                        dyn.setWeight(e, Integer.parseInt(parts[3]));
+                }
+                ++n;
+                if (trace.steps())
+                    trace.out.println(line + "  ->  MST weight " + dyn.weight());
+            }
+        } catch (RuntimeException e) {
+            throw new IOException(updateFile + ": line " + lineNo + ": bad update: " + e.getMessage(), e);
+        }
+
+        if (trace.summary()) {
+            trace.out.printf("%d updates in %.3f ms%n", n, (System.nanoTime() - start) / 1e6);
+            trace.out.println("TOTAL MST WEIGHT AFTER UPDATES ->> " + dyn.weight() + "\n");
+        }
+    }
 }
\ No newline at end of file
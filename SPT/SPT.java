@@ -1,132 +1,142 @@
 package SPT; // When reviewing code you may have to change this line when downloading on your own machine
 
 import java.io.*;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
 
-// Definition of the Heap class for efficient implementation of Dijkstra's Algorithm
-class Heap {
-    // Instance variables for the heap
-    private int[] a; // Heap array
-    public int[] hPos; // Positions of elements in the heap
-    private int[] dist; // Distances of vertices from the source
-    private int N; // Current size of the heap
-
-    // Constructor for the Heap class
-    public Heap(int maxSize, int[] _dist, int[] _hPos) {
-        N = 0;
-        a = new int[maxSize + 1];
-        dist = _dist;
-        hPos = _hPos;
-    }
+import Common.BinaryHeap;
+import Common.EdgeList;
+import Common.GraphLoader;
+import Common.HeapType;
+import Common.IndexedHeap;
+import Common.Options;
+import Common.Trace;
 
-    // Method to check if the heap is empty
-    public boolean isEmpty() {
-        return N == 0;
-    }
+// Definition of the GraphMatrix class for representing a weighted graph.
+// Adjacency is kept sparse in compressed sparse row (CSR) form so memory grows
+// with E rather than V * V; a dense adjacency matrix can still be requested
+// (--dense) for small, dense graphs, where Dijkstra's algorithm then scans
+// whole matrix rows instead of chasing the edge arrays.
+class GraphMatrix {
+    private static final int NO_EDGE = -1; // Matrix cell of a pair with no edge
 
-    // Method to perform sift-up operation in the heap
-    public void siftUp(int k) {
-        int v = a[k];
-        while (k > 1 && dist[v] < dist[a[k / 2]]) {
-            hPos[a[k / 2]] = k;
-            a[k] = a[k / 2];
-            k = k / 2;
-        }
-        a[k] = v;
-        hPos[v] = k;
-    }
+    // Instance variables for the graph
+    private int V, E; // Number of vertices and edges
+    private int maxWgt; // Heaviest edge weight, bounds the keys a bucket queue sees
+    private int[] offset; // Neighbours of v are at offset[v] .. offset[v + 1] - 1
+    private int[] target; // Neighbouring vertices
+    private int[] weight; // Edge weights, parallel to target[]
+    private int[][] adjMatrix; // Optional adjacency matrix, null unless dense
+    private volatile DeltaStepping.Split deltaSplit; // Edges split for the last delta, null if none
+    private Trace trace; // How much to print while working
 
-    // Method to perform sift-down operation in the heap
-    public void siftDown(int k) {
-        int v, j;
-        v = a[k];
-        while (k * 2 <= N) {
-            j = k * 2;
-            if (j < N && dist[a[j]] > dist[a[j + 1]]) {
-                ++j;
-            }
-            if (dist[v] <= dist[a[j]]) {
-                break;
-            }
-            hPos[a[j]] = k;
-            a[k] = a[j];
-            k = j;
-        }
-        hPos[v] = k;
-        a[k] = v;
+    // Constructor for the GraphMatrix class using sparse adjacency only
+    public GraphMatrix(String graphFile) throws IOException {
+        this(graphFile, false);
     }
 
-    // Method to insert a vertex into the heap
-    public void insert(int x) {
-        a[++N] = x;
-        siftUp(N);
-        System.out.println("Inserted " + toChar(x));
+    // Constructor for the GraphMatrix class, optionally also building the
+    // V * V adjacency matrix
+    public GraphMatrix(String graphFile, boolean dense) throws IOException {
+        this(graphFile, dense, Trace.STEP);
     }
 
-    // Method to remove the minimum vertex from the heap
-    public int remove() {
-        int v = a[1];
-        hPos[v] = 0;
-        a[1] = a[N--];
-        siftDown(1);
-        a[N + 1] = 0;
-        return v;
-    }
+    // Constructor for the GraphMatrix class with the given trace level
+    public GraphMatrix(String graphFile, boolean dense, Trace _trace) throws IOException {
+        trace = _trace;
+        EdgeList in = GraphLoader.load(graphFile);
+        V = in.V; // Number of vertices
+        E = in.E; // Number of edges
+        maxWgt = in.maxWgt;
+        int[] eu = in.u, ev = in.v, ew = in.w;
 
-    // Method to convert vertex number to corresponding character
-    private char toChar(int u) {
-        return (char) (u + 64);
-    }
-}
-
-// Definition of the GraphMatrix class for representing a graph using an
-// adjacency matrix
-class GraphMatrix {
-    // Instance variables for the graph
-    private int V, E; // Number of vertices and edges
-    private int[][] adjMatrix; // Adjacency matrix
-    private ArrayList<ArrayList<Integer>> adjList; // Adjacency list
+        // Counting vertex degrees, held in offset[v + 1] for now
+        offset = new int[V + 2];
+        for (int e = 0; e < E; ++e) {
+            ++offset[eu[e] + 1];
+            ++offset[ev[e] + 1];
+        }
+        if (trace.summary()) {
+            trace.out.println(in.loadSummary());
+        }
 
-    // Constructor for the GraphMatrix class
-    public GraphMatrix(String graphFile) throws IOException {
-        try (FileReader fr = new FileReader(graphFile);
-                BufferedReader reader = new BufferedReader(fr)) {
+        // Converting degrees into start offsets, then placing both directions
+        // of each edge in file order
+        for (int v = 1; v <= V + 1; v++) {
+            offset[v] += offset[v - 1];
+        }
 
-            String splits = " +";
-            String line = reader.readLine();
-            String[] parts = line.split(splits);
+        target = new int[2 * E];
+        weight = new int[2 * E];
+        int[] next = Arrays.copyOf(offset, V + 1);
 
-            V = Integer.parseInt(parts[0]); // Extracting number of vertices
-            E = Integer.parseInt(parts[1]); // Extracting number of edges
+        for (int e = 0; e < E; ++e) {
+            int u = eu[e], v = ev[e];
+            target[next[u]] = v;
+            weight[next[u]++] = ew[e];
+            target[next[v]] = u;
+            weight[next[v]++] = ew[e];
+        }
 
+        if (dense) {
             adjMatrix = new int[V + 1][V + 1]; // Initializing adjacency matrix
-            adjList = new ArrayList<>(V + 1); // Initializing adjacency list
-
-            for (int i = 0; i <= V; i++) {
-                adjList.add(new ArrayList<>()); // Adding empty lists to adjacency list
+            for (int[] row : adjMatrix) {
+                Arrays.fill(row, NO_EDGE);
+            }
+            // Keeping the lightest of any repeated edges, the only one a
+            // shortest path would use
+            for (int e = 0; e < E; ++e) {
+                int u = eu[e], v = ev[e];
+                if (adjMatrix[u][v] == NO_EDGE || ew[e] < adjMatrix[u][v]) {
+                    adjMatrix[u][v] = ew[e];
+                    adjMatrix[v][u] = ew[e];
+                }
             }
+        }
+    }
 
-            // Reading edges from the file and populating adjacency matrix and list
-            for (int e = 1; e <= E; ++e) {
-                line = reader.readLine();
-                parts = line.split(splits);
-                int u = Integer.parseInt(parts[0]);
-                int v = Integer.parseInt(parts[1]);
-                int wgt = Integer.parseInt(parts[2]);
+    // Method to hash the adjacency and weights of the graph, so files derived
+    // from it (contraction hierarchies, landmark tables) can tell when the
+    // graph they were built for has changed under them
+    public long fingerprint() {
+        long h = 0xCBF29CE484222325L; // FNV-1a over the CSR arrays
+        for (int v = 1; v <= V + 1; v++) {
+            h = (h ^ offset[v]) * 0x100000001B3L;
+        }
+        for (int i = 0; i < target.length; i++) {
+            h = (h ^ target[i]) * 0x100000001B3L;
+            h = (h ^ weight[i]) * 0x100000001B3L;
+        }
+        return h;
+    }
 
-                adjMatrix[u][v] = wgt;
-                adjMatrix[v][u] = wgt;
+    // Method to return the number of vertices
+    public int numVertices() {
+        return V;
+    }
 
-                // Adding edges to adjacency list
-                adjList.get(u).add(v);
-                adjList.get(v).add(u);
-            }
-        }
+    // Method to return the number of edges
+    public int numEdges() {
+        return E;
     }
 
-    // Method to convert vertex number to corresponding character
-    private char toChar(int u) {
-        return (char) (u + 64);
+    // Method to convert vertex number to its printed name
+    private String toChar(int u) {
+        return Trace.label(u, V);
     }
 
     // Method to display the adjacency matrix
@@ -137,10 +147,21 @@ class GraphMatrix {
             System.out.print(i + " ");
         }
         System.out.println();
+        int[] row = new int[V + 1];
         for (int i = 1; i <= V; i++) {
+            // Expanding row i from the sparse adjacency when no matrix is kept
+            if (adjMatrix != null) {
+                row = adjMatrix[i];
+            } else {
+                Arrays.fill(row, NO_EDGE);
+                for (int k = offset[i]; k < offset[i + 1]; k++) {
+                    row[target[k]] = weight[k];
+                }
+            }
+
             System.out.print(i + " ");
             for (int j = 1; j <= V; j++) {
-                System.out.print(adjMatrix[i][j] + " ");
+                System.out.print((row[j] == NO_EDGE ? 0 : row[j]) + " ");
             }
             System.out.println();
         }
@@ -148,56 +169,1446 @@ class GraphMatrix {
 
     // Method to perform Dijkstra's algorithm to find shortest paths from a source
     // vertex
-    public void Dijkstra(int s) {
-        boolean[] inTree = new boolean[V + 1];
-        int[] parent = new int[V + 1];
-        int[] dist = new int[V + 1];
-        Arrays.fill(dist, Integer.MAX_VALUE);
+    public ShortestPaths Dijkstra(int s) {
+        return Dijkstra(s, HeapType.BINARY);
+    }
+
+    // Method to perform Dijkstra's algorithm using the chosen priority queue
+    public ShortestPaths Dijkstra(int s, HeapType heapType) {
+        SearchSpace ws = newSearchSpace(heapType);
+        search(s, ws, trace);
+
+        // Displaying the shortest paths from the source vertex
+        if (trace.summary()) {
+            trace.out.println("\nDijkstra's SPT:");
+            for (int i = 1; i <= V; i++) {
+                if (i != s) {
+                    trace.out.println("Shortest path from " + toChar(s) + " to " + toChar(i) + " is " + ws.dist[i]);
+                }
+            }
+        }
+
+        return new ShortestPaths(s, ws.dist, ws.parent);
+    }
+
+    // Method to find shortest paths from s with parallel delta-stepping, for
+    // graphs big enough to keep every thread of pool busy
+    public ShortestPaths DeltaStepping(int s, int delta, ForkJoinPool pool) {
+        // The light/heavy copy of the edges is made once and kept for later
+        // searches with the same delta; target[] and weight[] are never touched
+        DeltaStepping.Split split = deltaSplit;
+        if (split == null || split.delta != delta) {
+            split = new DeltaStepping.Split(V, offset, target, weight, delta);
+            deltaSplit = split;
+        }
+        return new DeltaStepping(V, offset, split, maxWgt).run(s, pool);
+    }
+
+    // Method to suggest a bucket width: the largest weight over the average
+    // degree, so a vertex has about one light edge per bucket
+    public int defaultDelta() {
+        return (int) Math.max(1, (long) maxWgt * V / Math.max(1, offset[V + 1]));
+    }
+
+    // Method to make the buffers for one Dijkstra search at a time, sized for
+    // this graph; each thread searching the graph needs its own
+    public SearchSpace newSearchSpace(HeapType heapType) {
+        return new SearchSpace(V, heapType, maxWgt);
+    }
+
+    // Method to find the shortest path from s to t, stopping as soon as t is
+    // settled rather than settling every reachable vertex
+    public Route shortestPath(int s, int t, HeapType heapType) {
+        SearchSpace ws = newSearchSpace(heapType);
+        int settled = search(s, t, ws, Trace.OFF);
+        return Route.from(s, t, ws, null, t, settled);
+    }
+
+    // Method to find the shortest path from s to t by searching forwards from
+    // s and backwards from t at the same time, expanding the smaller frontier
+    // each step. It stops once the two heap minimums add up to no less than
+    // the best s-t path seen where the searches meet, so both searches only
+    // cover about half the distance.
+    public Route shortestPathBidirectional(int s, int t, HeapType heapType) {
+        return shortestPathBidirectional(s, t, newSearchSpace(heapType), newSearchSpace(heapType));
+    }
+
+    // Method to run a bidirectional search with caller supplied (reset)
+    // search spaces, so repeated queries need not allocate
+    public Route shortestPathBidirectional(int s, int t, SearchSpace fwd, SearchSpace bwd) {
+        long best = Integer.MAX_VALUE; // Shortest s-t path found so far
+        int meet = 0; // Vertex where that path crosses between the searches
+        int settled = 0;
+
+        fwd.reach(s, 0);
+        fwd.heap.insert(s);
+        bwd.reach(t, 0);
+        bwd.heap.insert(t);
+        if (s == t) {
+            best = 0;
+            meet = s;
+        }
+
+        while (!fwd.heap.isEmpty() && !bwd.heap.isEmpty()) {
+            if ((long) fwd.dist[fwd.heap.peek()] + bwd.dist[bwd.heap.peek()] >= best) {
+                break; // No unsettled vertex can lie on a shorter path
+            }
+
+            SearchSpace a = fwd.heap.size() <= bwd.heap.size() ? fwd : bwd;
+            SearchSpace b = (a == fwd) ? bwd : fwd;
+
+            int v = a.heap.remove();
+            a.inTree[v] = true;
+            settled++;
+
+            for (int k = offset[v]; k < offset[v + 1]; k++) {
+                int u = target[k];
+                if (!a.inTree[u] && a.dist[v] + weight[k] < a.dist[u]) {
+                    a.reach(u, a.dist[v] + weight[k]);
+                    a.parent[u] = v;
+                    a.heap.insertOrUpdate(u);
+                }
+
+                // Checking whether the edge closes a shorter s-t path
+                if (a.dist[u] != Integer.MAX_VALUE && b.dist[u] != Integer.MAX_VALUE
+                        && (long) a.dist[u] + b.dist[u] < best) {
+                    best = (long) a.dist[u] + b.dist[u];
+                    meet = u;
+                }
+            }
+        }
+
+        return Route.from(s, t, fwd, bwd, meet, settled);
+    }
+
+    // Method to make the buffers for one A* search at a time. With a consistent
+    // heuristic a queued key can exceed the smallest by at most two edge weights
+    public SearchSpace newAStarSpace(HeapType heapType) {
+        return new SearchSpace(V, heapType, 2 * maxWgt, true);
+    }
+
+    // Method to find the shortest path from s to t with A*: Dijkstra ordered
+    // by dist[v] + h.estimate(v, t), so vertices heading away from t are put
+    // off and usually never settled. The heuristic must be consistent.
+    public Route shortestPathAStar(int s, int t, Heuristic h, HeapType heapType) {
+        return shortestPathAStar(s, t, h, newAStarSpace(heapType));
+    }
+
+    // Method to run A* with a caller supplied (reset) space from newAStarSpace
+    public Route shortestPathAStar(int s, int t, Heuristic h, SearchSpace ws) {
+        int[] dist = ws.dist;
+        int[] key = ws.key;
+        int settled = 0;
+
+        ws.reach(s, 0);
+        key[s] = h.estimate(s, t);
+        ws.heap.insert(s);
+
+        while (!ws.heap.isEmpty()) {
+            int v = ws.heap.remove();
+            ws.inTree[v] = true;
+            settled++;
+            if (v == t) {
+                break;
+            }
+
+            for (int k = offset[v]; k < offset[v + 1]; k++) {
+                int u = target[k];
+                if (!ws.inTree[u] && dist[v] + weight[k] < dist[u]) {
+                    ws.reach(u, dist[v] + weight[k]);
+                    ws.parent[u] = v;
+                    key[u] = dist[u] + h.estimate(u, t);
+                    ws.heap.insertOrUpdate(u);
+                }
+            }
+        }
+
+        return Route.from(s, t, ws, null, t, settled);
+    }
+
+    // Method to build the straight-line heuristic for this graph from vertex
+    // coordinates. Distances are scaled by the smallest weight per unit of
+    // length over all edges, which keeps the estimate consistent whatever
+    // units the coordinates are in.
+    public Heuristic euclidean(Coordinates c) {
+        double scale = Double.MAX_VALUE;
+        for (int v = 1; v <= V; v++) {
+            for (int k = offset[v]; k < offset[v + 1]; k++) {
+                double len = c.distance(v, target[k]);
+                if (len > 0) {
+                    scale = Math.min(scale, weight[k] / len);
+                }
+            }
+        }
+        if (scale == Double.MAX_VALUE) {
+            scale = 0; // No edge has any length, so there is nothing to go on
+        }
+
+        double f = scale;
+        return (v, t) -> (int) (f * c.distance(v, t));
+    }
+
+    // Method to change the weight of edge u--v, every copy of it if the file
+    // lists it more than once. Trees found before the change go stale; repair
+    // brings one up to date far faster than searching again. Contraction
+    // hierarchies and landmark tables saved for the graph are not updated.
+    public void setWeight(int u, int v, int w) {
+        if (w < 0) {
+            throw new IllegalArgumentException("edge weights must not be negative, got " + w);
+        }
+        boolean found = false;
+        for (int i = offset[u]; i < offset[u + 1]; i++) {
+            if (target[i] == v) {
+                weight[i] = w;
+                found = true;
+            }
+        }
+        if (!found) {
+            throw new IllegalArgumentException("no edge " + u + "--" + v + " to change");
+        }
+        for (int i = offset[v]; i < offset[v + 1]; i++) {
+            if (target[i] == u) {
+                weight[i] = w;
+            }
+        }
+        if (adjMatrix != null) {
+            adjMatrix[u][v] = w;
+            adjMatrix[v][u] = w;
+        }
+        maxWgt = Math.max(maxWgt, w);
+        deltaSplit = null; // The edge may have crossed the light/heavy line
+    }
+
+    // Method to make the buffers repair works in; one serves any number of
+    // trees of this graph, one tree at a time. Keys are taken from several
+    // places in the tree at once, so the bucket queue cannot be used.
+    public SearchSpace newRepairSpace(HeapType heapType) {
+        if (heapType == HeapType.BUCKET) {
+            throw new IllegalArgumentException("tree repair needs a comparison heap, not " + heapType);
+        }
+        return new SearchSpace(V, heapType, 0, true);
+    }
+
+    // Method to bring a tree found before setWeight(a, b, ...) up to date in
+    // place, returning how many vertices had to be settled again. If the edge
+    // got lighter, the better distance spreads out from whichever end it now
+    // helps. If a tree edge got heavier, the subtree below it is cut loose,
+    // each of its vertices takes the best link back to the rest of the tree,
+    // and they are settled again from there. Call it after every setWeight.
+    public int repair(ShortestPaths sp, int a, int b, SearchSpace ws) {
+        int[] dist = sp.dist;
+        int[] parent = sp.parent;
+        int w = Integer.MAX_VALUE;
+        for (int i = offset[a]; i < offset[a + 1]; i++) {
+            if (target[i] == b) {
+                w = Math.min(w, weight[i]);
+            }
+        }
+
+        // A tree edge that got heavier invalidates everything below it
+        int child = (parent[b] == a) ? b : (parent[a] == b) ? a : 0;
+        if (child != 0 && dist[child] < (long) dist[parent[child]] + w) {
+            // Children are neighbours, so the subtree is found through the
+            // graph edges of its vertices; inTree marks its members
+            int[] sub = new int[16];
+            int n = 0;
+            sub[n++] = child;
+            ws.reach(child, 0);
+            ws.inTree[child] = true;
+            for (int j = 0; j < n; j++) {
+                int v = sub[j];
+                for (int i = offset[v]; i < offset[v + 1]; i++) {
+                    int u = target[i];
+                    if (!ws.inTree[u] && parent[u] == v) {
+                        if (n == sub.length) {
+                            sub = Arrays.copyOf(sub, 2 * n);
+                        }
+                        sub[n++] = u;
+                        ws.reach(u, 0);
+                        ws.inTree[u] = true;
+                    }
+                }
+            }
+            for (int j = 0; j < n; j++) {
+                dist[sub[j]] = Integer.MAX_VALUE;
+                parent[sub[j]] = 0;
+            }
+
+            // Reattaching each vertex through its best neighbour outside
+            for (int j = 0; j < n; j++) {
+                int v = sub[j];
+                for (int i = offset[v]; i < offset[v + 1]; i++) {
+                    int u = target[i];
+                    if (!ws.inTree[u] && dist[u] != Integer.MAX_VALUE && (long) dist[u] + weight[i] < dist[v]) {
+                        dist[v] = dist[u] + weight[i];
+                        parent[v] = u;
+                    }
+                }
+                if (dist[v] != Integer.MAX_VALUE) {
+                    requeue(v, dist, ws);
+                }
+            }
+        }
+
+        // An edge that got lighter may now give either end a shorter path
+        if (dist[a] != Integer.MAX_VALUE && (long) dist[a] + w < dist[b]) {
+            dist[b] = dist[a] + w;
+            parent[b] = a;
+            requeue(b, dist, ws);
+        } else if (dist[b] != Integer.MAX_VALUE && (long) dist[b] + w < dist[a]) {
+            dist[a] = dist[b] + w;
+            parent[a] = b;
+            requeue(a, dist, ws);
+        }
+
+        // Dijkstra from the queued vertices, going only where it helps
+        int settled = 0;
+        while (!ws.heap.isEmpty()) {
+            int v = ws.heap.remove();
+            settled++;
+            for (int i = offset[v]; i < offset[v + 1]; i++) {
+                int u = target[i];
+                if ((long) dist[v] + weight[i] < dist[u]) {
+                    dist[u] = dist[v] + weight[i];
+                    parent[u] = v;
+                    requeue(u, dist, ws);
+                }
+            }
+        }
+
+        ws.reset();
+        return settled;
+    }
 
-        // Creating heap for efficient selection of minimum distance vertex
-        Heap h = new Heap(V, dist, new int[V + 1]);
+    // Method to queue v for repair at its new distance
+    private static void requeue(int v, int[] dist, SearchSpace ws) {
+        ws.reach(v, 0); // Only so reset() knows to clear it
+        ws.key[v] = dist[v];
+        ws.heap.insertOrUpdate(v);
+    }
 
-        dist[s] = 0; // Distance to source vertex is 0
+    // Method to preprocess the graph into a contraction hierarchy for fast
+    // point to point queries
+    public ContractionHierarchy contract() {
+        return ContractionHierarchy.build(V, E, fingerprint(), offset, target, weight);
+    }
+
+    // Method holding the body of Dijkstra's algorithm, filling a freshly reset
+    // search space. It only reads the graph, so several threads can run it at
+    // once with their own search spaces.
+    void search(int s, SearchSpace ws, Trace tr) {
+        search(s, 0, ws, tr);
+    }
+
+    // Method running Dijkstra's algorithm from s until t is settled, or to
+    // completion when t is 0, returning how many vertices were settled
+    int search(int s, int t, SearchSpace ws, Trace tr) {
+        int settled = 0;
+        boolean[] inTree = ws.inTree;
+        IndexedHeap h = ws.heap;
+
+        ws.reach(s, 0); // Distance to source vertex is 0
         h.insert(s); // Inserting source vertex into the heap
+        if (tr.steps()) {
+            tr.out.println("Inserted " + toChar(s));
+        }
 
         while (!h.isEmpty()) {
             int v = h.remove(); // Removing minimum distance vertex from the heap
             inTree[v] = true; // Marking vertex as in tree
+            settled++;
+            if (v == t) {
+                break; // dist[t] is final, the rest of the graph is not needed
+            }
+
+            // Iterating through neighbors of the current vertex, from its
+            // matrix row when the graph is dense
+            if (adjMatrix != null) {
+                int[] row = adjMatrix[v];
+                for (int neighbor = 1; neighbor <= V; neighbor++) {
+                    if (row[neighbor] != NO_EDGE) {
+                        relax(v, neighbor, row[neighbor], ws, tr);
+                    }
+                }
+            } else {
+                for (int k = offset[v]; k < offset[v + 1]; k++) {
+                    relax(v, target[k], weight[k], ws, tr);
+                }
+            }
+        }
+        return settled;
+    }
+
+    // Method to offer neighbor the path through v along an edge of weight w
+    private void relax(int v, int neighbor, int w, SearchSpace ws, Trace tr) {
+        int[] dist = ws.dist;
+        IndexedHeap h = ws.heap;
+
+        // If neighbor is not in tree and the distance through current vertex is shorter
+        if (!ws.inTree[neighbor] && dist[v] + w < dist[neighbor]) {
+            ws.reach(neighbor, dist[v] + w); // Updating distance
+            ws.parent[neighbor] = v; // Updating parent
+            // Inserting or updating neighbor in the heap
+            if (h.contains(neighbor)) {
+                h.decreaseKey(neighbor);
+            } else {
+                h.insert(neighbor);
+                if (tr.steps()) {
+                    tr.out.println("Inserted " + toChar(neighbor));
+                }
+            }
+
+            // Printing heap contents, distance array, and parent array for visualization
+            if (tr.steps()) {
+                showStep(dist, ws.parent, tr);
+            }
+        }
+    }
+
+    // Method to print the distance and parent arrays after a relaxation to
+    // the trace of the search that made it
+    private void showStep(int[] dist, int[] parent, Trace tr) {
+        tr.out.println("Heap Contents:");
+        for (int i = 1; i <= V; i++) {
+            tr.out.println("Node: " + i + ", Distance: " + dist[i]);
+        }
+
+        tr.out.println("Dist Array:");
+        for (int i = 1; i <= V; i++) {
+            tr.out.println(toChar(i) + " -> " + dist[i]);
+        }
+
+        tr.out.println("Parent Array:");
+        for (int i = 1; i <= V; i++) {
+            tr.out.println(toChar(i) + " -> " + toChar(parent[i]));
+        }
+
+        tr.out.println("\n");
+    }
+}
+
+// Result of a single source shortest path search: dist[v] is the length of
+// the shortest path from source to v, Integer.MAX_VALUE if v is unreachable,
+// and parent[v] is the vertex before v on that path, 0 for the source and for
+// unreachable vertices
+class ShortestPaths {
+    public final int source;
+    public final int[] dist;
+    public final int[] parent;
+
+    public ShortestPaths(int _source, int[] _dist, int[] _parent) {
+        source = _source;
+        dist = _dist;
+        parent = _parent;
+    }
+
+    // Method to list the vertices on the shortest path from source to t,
+    // empty if t is unreachable
+    public int[] pathTo(int t) {
+        if (dist[t] == Integer.MAX_VALUE) {
+            return new int[0];
+        }
+        int n = 1;
+        for (int v = t; v != source; v = parent[v]) {
+            n++;
+        }
+        int[] path = new int[n];
+        for (int v = t; n > 0; v = parent[v]) {
+            path[--n] = v;
+        }
+        return path;
+    }
+}
+
+// Lower bound on the distance between two vertices, steering A* towards its
+// target. It must be consistent: estimate(t, t) == 0 and
+// estimate(u, t) <= w + estimate(v, t) for every edge u--v of weight w
+interface Heuristic {
+    int estimate(int v, int t);
+}
+
+// Definition of the Coordinates class, holding a position for each vertex
+// read from a file alongside the edge file: a "V" header line, then lines of
+// "v x y". Vertices that are not listed sit at the origin.
+class Coordinates {
+    private double[] x, y;
+
+    public Coordinates(String coordFile) throws IOException {
+        try (FileReader fr = new FileReader(coordFile);
+                BufferedReader reader = new BufferedReader(fr)) {
+
+            String splits = " +";
+            String line = reader.readLine();
+            int V = Integer.parseInt(line.trim());
+            x = new double[V + 1];
+            y = new double[V + 1];
+
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] parts = line.split(splits);
+                int v = Integer.parseInt(parts[0]);
+                x[v] = Double.parseDouble(parts[1]);
+                y[v] = Double.parseDouble(parts[2]);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException(coordFile + ": bad coordinate file: " + e.getMessage(), e);
+        }
+    }
+
+    // Method to return the straight-line distance between u and v
+    public double distance(int u, int v) {
+        return Math.hypot(x[u] - x[v], y[u] - y[v]);
+    }
+}
+
+// Definition of the Landmarks class, the ALT heuristic (A*, landmarks and the
+// triangle inequality). A few landmark vertices are picked and the distance
+// from each to every vertex is found with Dijkstra once; afterwards, for any
+// landmark L, |d(L, t) - d(L, v)| is a lower bound on d(v, t). The tables are
+// kept in a binary file next to the graph so later runs can just load them:
+//
+//   int magic ('WALT'), int version, int V, int E, int fingerprint low and
+//   high halves, int k, int[k] landmarks, then k rows of V + 1 distances
+class Landmarks implements Heuristic {
+    private static final int MAGIC = 0x57414C54; // "WALT"
+    private static final int VERSION = 2;
+
+    private int V, E;
+    private long fingerprint; // GraphMatrix.fingerprint() of the graph searched
+    private int[] landmark; // The chosen vertices
+    private int[][] dist; // dist[i][v] = d(landmark[i], v), MAX_VALUE if unreachable
+
+    private Landmarks(int _V, int _E, long _fingerprint, int[] _landmark, int[][] _dist) {
+        V = _V;
+        E = _E;
+        fingerprint = _fingerprint;
+        landmark = _landmark;
+        dist = _dist;
+    }
+
+    // Method to choose k landmarks by farthest-point selection and build their
+    // tables: each new landmark is the vertex farthest from all chosen so far,
+    // starting from the vertex farthest from vertex 1. A vertex no landmark
+    // reaches counts as farthest, so every component gets covered.
+    public static Landmarks select(GraphMatrix g, int k, HeapType heapType) {
+        int V = g.numVertices();
+        k = Math.min(k, V);
+        int[] landmark = new int[k];
+        int[][] dist = new int[k][];
+        int[] nearest = new int[V + 1]; // Distance to the nearest landmark so far
+        Arrays.fill(nearest, Integer.MAX_VALUE);
+
+        SearchSpace ws = g.newSearchSpace(heapType);
+        int next = farthest(g, 1, ws, nearest);
+
+        for (int i = 0; i < k; i++) {
+            landmark[i] = next;
+            ws.reset();
+            g.search(next, ws, Trace.OFF);
+            dist[i] = ws.dist.clone();
+
+            next = 1;
+            for (int v = 1; v <= V; v++) {
+                nearest[v] = Math.min(nearest[v], dist[i][v]);
+                if (nearest[v] > nearest[next]) {
+                    next = v;
+                }
+            }
+        }
+        return new Landmarks(V, g.numEdges(), g.fingerprint(), landmark, dist);
+    }
+
+    // Method to find the vertex farthest from s, the usual first landmark
+    private static int farthest(GraphMatrix g, int s, SearchSpace ws, int[] nearest) {
+        g.search(s, ws, Trace.OFF);
+        int best = s;
+        for (int v = 1; v < ws.dist.length; v++) {
+            if (ws.dist[v] != Integer.MAX_VALUE && ws.dist[v] > ws.dist[best]) {
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    // Method to load the tables saved next to graphFile if they were built
+    // for exactly this graph, otherwise select k landmarks and save their
+    // tables there. Tables for edited weights would no longer be lower
+    // bounds, so those are rebuilt; failing to save only costs a warning.
+    public static Landmarks loadOrBuild(GraphMatrix g, String graphFile, int k, HeapType heapType) {
+        String altFile = graphFile + ".alt";
+        if (new File(altFile).exists()) {
+            try {
+                Landmarks lm = load(altFile);
+                if (lm.V == g.numVertices() && lm.E == g.numEdges() && lm.fingerprint == g.fingerprint()
+                        && lm.landmark.length == Math.min(k, lm.V)) {
+                    return lm;
+                }
+            } catch (IOException e) {
+                // Unreadable or out of date, so it is simply rebuilt
+            }
+        }
+        Landmarks lm = select(g, k, heapType);
+        try {
+            lm.save(altFile);
+        } catch (IOException e) {
+            System.err.println("Warning: couldn't save landmark tables: " + e.getMessage());
+        }
+        return lm;
+    }
+
+    // Method to write the tables to a binary file
+    public void save(String altFile) throws IOException {
+        int k = landmark.length;
+        long bytes = 4L * (7 + k + (long) k * (V + 1));
+        try (FileChannel ch = FileChannel.open(Paths.get(altFile), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            IntBuffer out = ch.map(FileChannel.MapMode.READ_WRITE, 0, bytes).order(ByteOrder.LITTLE_ENDIAN)
+                    .asIntBuffer();
+            out.put(MAGIC).put(VERSION).put(V).put(E).put((int) fingerprint).put((int) (fingerprint >>> 32));
+            out.put(k).put(landmark);
+            for (int[] row : dist) {
+                out.put(row);
+            }
+        }
+    }
+
+    // Method to read tables written by save
+    public static Landmarks load(String altFile) throws IOException {
+        try (FileChannel ch = FileChannel.open(Paths.get(altFile), StandardOpenOption.READ)) {
+            IntBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()).order(ByteOrder.LITTLE_ENDIAN)
+                    .asIntBuffer();
+            if (in.remaining() < 7 || in.get() != MAGIC || in.get() != VERSION) {
+                throw new IOException(altFile + ": not a landmark table file");
+            }
+            int V = in.get(), E = in.get();
+            long fingerprint = (in.get() & 0xFFFFFFFFL) | ((long) in.get() << 32);
+            int k = in.get();
+            if (V < 0 || k < 0 || in.remaining() != k + (long) k * (V + 1)) {
+                throw new IOException(altFile + ": landmark table file is truncated");
+            }
+
+            int[] landmark = new int[k];
+            in.get(landmark);
+            int[][] dist = new int[k][V + 1];
+            for (int[] row : dist) {
+                in.get(row);
+            }
+            return new Landmarks(V, E, fingerprint, landmark, dist);
+        }
+    }
+
+    public int[] landmarks() {
+        return landmark.clone();
+    }
+
+    public int estimate(int v, int t) {
+        int best = 0;
+        for (int[] d : dist) {
+            // A landmark that cannot reach both vertices says nothing
+            if (d[v] != Integer.MAX_VALUE && d[t] != Integer.MAX_VALUE) {
+                best = Math.max(best, Math.abs(d[t] - d[v]));
+            }
+        }
+        return best;
+    }
+}
+
+// Definition of the ContractionHierarchy class for very fast point to point
+// queries on a graph that rarely changes. Preprocessing contracts the vertices
+// one at a time, least important first, adding a shortcut u--w (through v)
+// whenever removing v would lengthen the shortest u-w path, which a bounded
+// witness search checks. Importance is the edge difference (shortcuts added
+// minus edges removed) plus the number of neighbours already contracted,
+// kept up to date lazily. Every edge then points from the lower to the higher
+// ranked vertex, and a query is a bidirectional Dijkstra that only goes up,
+// touching a few hundred vertices even on large road networks. Shortcuts
+// remember the vertex they bypass so routes can be unpacked.
+//
+// Saved form, little-endian ints: magic ('WGCH'), version, V, E, the graph's
+// fingerprint as low and high halves, n, then rank[V + 1], upOff[V + 2],
+// upTarget[n], upWeight[n], upMid[n]
+class ContractionHierarchy {
+    private static final int MAGIC = 0x57474348; // "WGCH"
+    private static final int VERSION = 2;
+    private static final int WITNESS_SETTLE_LIMIT = 500; // Vertices a witness search may settle
+
+    private int V, E; // Size of the original graph
+    private long fingerprint; // GraphMatrix.fingerprint() of the original graph
+    private int[] rank; // rank[v] = position of v in the contraction order, from 1
+    private int[] upOff; // Upward edges of v are at upOff[v] .. upOff[v + 1] - 1
+    private int[] upTarget; // Higher ranked end of each upward edge
+    private int[] upWeight;
+    private int[] upMid; // Vertex a shortcut bypasses, 0 for an original edge
+
+    private ContractionHierarchy(int _V, int _E, long _fingerprint, int[] _rank, int[] _upOff, int[] _upTarget,
+            int[] _upWeight, int[] _upMid) {
+        V = _V;
+        E = _E;
+        fingerprint = _fingerprint;
+        rank = _rank;
+        upOff = _upOff;
+        upTarget = _upTarget;
+        upWeight = _upWeight;
+        upMid = _upMid;
+    }
+
+    // Method to contract the graph given by its CSR arrays
+    static ContractionHierarchy build(int V, int E, long fingerprint, int[] offset, int[] target, int[] weight) {
+        return new Builder(V, offset, target, weight).run(E, fingerprint);
+    }
+
+    // Method to make the buffers for one direction of a query; shortcut
+    // weights are unbounded so the bucket queue cannot be used
+    public SearchSpace newSearchSpace(HeapType heapType) {
+        if (heapType == HeapType.BUCKET) {
+            throw new IllegalArgumentException("contraction hierarchy queries need a comparison heap, not " + heapType);
+        }
+        return new SearchSpace(V, heapType, 0);
+    }
+
+    // Method to find the shortest path from s to t
+    public Route query(int s, int t, HeapType heapType) {
+        return query(s, t, newSearchSpace(heapType), newSearchSpace(heapType));
+    }
+
+    // Method to find the shortest path from s to t with caller supplied
+    // (reset) search spaces, so repeated queries need not allocate
+    public Route query(int s, int t, SearchSpace fwd, SearchSpace bwd) {
+        long best = Integer.MAX_VALUE;
+        int meet = 0;
+        int settled = 0;
+
+        fwd.reach(s, 0);
+        fwd.heap.insert(s);
+        bwd.reach(t, 0);
+        bwd.heap.insert(t);
 
-            // Iterating through neighbors of the current vertex
-            for (int neighbor : adjList.get(v)) {
-                // If neighbor is not in tree and the distance through current vertex is shorter
-                if (!inTree[neighbor] && dist[v] + adjMatrix[v][neighbor] < dist[neighbor]) {
-                    dist[neighbor] = dist[v] + adjMatrix[v][neighbor]; // Updating distance
-                    parent[neighbor] = v; // Updating parent
-                    h.insert(neighbor); // Inserting or updating neighbor in the heap
-
-                    // Printing heap contents, distance array, and parent array for visualization
-                    System.out.println("Heap Contents:");
-                    for (int i = 1; i <= V; i++) {
-                        System.out.println("Node: " + i + ", Distance: " + dist[i]);
+        while (true) {
+            // Taking the side with the smaller minimum, dropping a side once
+            // its minimum can no longer improve on the best meeting
+            SearchSpace a = null;
+            long min = best;
+            if (!fwd.heap.isEmpty() && fwd.dist[fwd.heap.peek()] < min) {
+                a = fwd;
+                min = fwd.dist[fwd.heap.peek()];
+            }
+            if (!bwd.heap.isEmpty() && bwd.dist[bwd.heap.peek()] < min) {
+                a = bwd;
+            }
+            if (a == null) {
+                break;
+            }
+            SearchSpace b = (a == fwd) ? bwd : fwd;
+
+            int v = a.heap.remove();
+            a.inTree[v] = true;
+            settled++;
+            if (b.dist[v] != Integer.MAX_VALUE && (long) a.dist[v] + b.dist[v] < best) {
+                best = (long) a.dist[v] + b.dist[v];
+                meet = v;
+            }
+
+            for (int k = upOff[v]; k < upOff[v + 1]; k++) {
+                int u = upTarget[k];
+                if (!a.inTree[u] && a.dist[v] + upWeight[k] < a.dist[u]) {
+                    a.reach(u, a.dist[v] + upWeight[k]);
+                    a.parent[u] = v;
+                    a.heap.insertOrUpdate(u);
+                }
+            }
+        }
+
+        if (meet == 0) {
+            return new Route(s, t, Integer.MAX_VALUE, new int[0], settled);
+        }
+        Route up = Route.from(s, t, fwd, bwd, meet, settled);
+        return new Route(s, t, up.dist, unpack(up.path), settled);
+    }
+
+    // Method to replace every shortcut on a path of the upward graph by the
+    // original edges it stands for, using an explicit stack
+    private int[] unpack(int[] path) {
+        int[] out = new int[16];
+        int n = 0;
+        int[] stack = new int[16];
+
+        out[n++] = path[0];
+        for (int i = 1; i < path.length; i++) {
+            int top = 0;
+            stack[top++] = path[i];
+            int from = path[i - 1];
+
+            while (top > 0) {
+                int to = stack[top - 1];
+                int mid = midpoint(from, to);
+                if (mid != 0) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, 2 * top);
                     }
+                    stack[top++] = mid; // Expanding from--mid before mid--to
+                } else {
+                    if (n == out.length) {
+                        out = Arrays.copyOf(out, 2 * n);
+                    }
+                    out[n++] = to;
+                    from = to;
+                    top--;
+                }
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // Method to return the vertex the edge a--b bypasses, 0 if it is original
+    private int midpoint(int a, int b) {
+        int lo = rank[a] < rank[b] ? a : b;
+        int hi = (lo == a) ? b : a;
+        for (int k = upOff[lo]; k < upOff[lo + 1]; k++) {
+            if (upTarget[k] == hi) {
+                return upMid[k];
+            }
+        }
+        throw new IllegalStateException("no edge between " + a + " and " + b + " in the hierarchy");
+    }
+
+    // Method to load the hierarchy saved next to graphFile if it was built
+    // for exactly this graph, otherwise contract the graph and save the result
+    // there. A file from another version or for edited weights is rebuilt,
+    // and failing to save only costs the next run a rebuild.
+    public static ContractionHierarchy loadOrBuild(GraphMatrix g, String graphFile) throws IOException {
+        String chFile = graphFile + ".ch";
+        long fp = g.fingerprint();
+        if (new File(chFile).exists()) {
+            try {
+                ContractionHierarchy ch = load(chFile);
+                if (ch.V == g.numVertices() && ch.E == g.numEdges() && ch.fingerprint == fp) {
+                    return ch;
+                }
+            } catch (IOException e) {
+                // Unreadable or out of date, so it is simply rebuilt
+            }
+        }
+        ContractionHierarchy ch = g.contract();
+        try {
+            ch.save(chFile);
+        } catch (IOException e) {
+            System.err.println("Warning: couldn't save contraction hierarchy: " + e.getMessage());
+        }
+        return ch;
+    }
+
+    // Method to write the hierarchy to a binary file
+    public void save(String chFile) throws IOException {
+        int n = upTarget.length;
+        long bytes = 4L * (7 + (V + 1) + (V + 2) + 3L * n);
+        try (FileChannel ch = FileChannel.open(Paths.get(chFile), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            IntBuffer out = ch.map(FileChannel.MapMode.READ_WRITE, 0, bytes).order(ByteOrder.LITTLE_ENDIAN)
+                    .asIntBuffer();
+            out.put(MAGIC).put(VERSION).put(V).put(E).put((int) fingerprint).put((int) (fingerprint >>> 32)).put(n);
+            out.put(rank).put(upOff).put(upTarget).put(upWeight).put(upMid);
+        }
+    }
 
-                    System.out.println("Dist Array:");
-                    for (int i = 1; i <= V; i++) {
-                        System.out.println(toChar(i) + " -> " + dist[i]);
+    // Method to read a hierarchy written by save
+    public static ContractionHierarchy load(String chFile) throws IOException {
+        try (FileChannel ch = FileChannel.open(Paths.get(chFile), StandardOpenOption.READ)) {
+            IntBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()).order(ByteOrder.LITTLE_ENDIAN)
+                    .asIntBuffer();
+            if (in.remaining() < 7 || in.get() != MAGIC || in.get() != VERSION) {
+                throw new IOException(chFile + ": not a contraction hierarchy file");
+            }
+            int V = in.get(), E = in.get();
+            long fingerprint = (in.get() & 0xFFFFFFFFL) | ((long) in.get() << 32);
+            int n = in.get();
+            if (V < 0 || n < 0 || in.remaining() != (V + 1) + (V + 2) + 3L * n) {
+                throw new IOException(chFile + ": contraction hierarchy file is truncated");
+            }
+
+            int[] rank = new int[V + 1], upOff = new int[V + 2];
+            int[] upTarget = new int[n], upWeight = new int[n], upMid = new int[n];
+            in.get(rank).get(upOff).get(upTarget).get(upWeight).get(upMid);
+            return new ContractionHierarchy(V, E, fingerprint, rank, upOff, upTarget, upWeight, upMid);
+        }
+    }
+
+    // Method to return how many edges the upward graph has, shortcuts included
+    public int numUpEdges() {
+        return upTarget.length;
+    }
+
+    // The graph as it is while vertices are being contracted: per-vertex
+    // growable lists of the remaining neighbours, each entry with its weight
+    // and the vertex it bypasses (0 for an original edge)
+    private static class Builder {
+        private int V;
+        private int[][] nbr, wgt, mid;
+        private int[] deg;
+        private int[] deleted; // Neighbours contracted so far
+        private int[] rank;
+        private int[][] upNbr, upWgt, upMid; // Each vertex's edges as it was contracted
+        private SearchSpace ws; // For witness searches
+
+        Builder(int _V, int[] offset, int[] target, int[] weight) {
+            V = _V;
+            nbr = new int[V + 1][];
+            wgt = new int[V + 1][];
+            mid = new int[V + 1][];
+            deg = new int[V + 1];
+            deleted = new int[V + 1];
+            rank = new int[V + 1];
+            upNbr = new int[V + 1][];
+            upWgt = new int[V + 1][];
+            upMid = new int[V + 1][];
+            ws = new SearchSpace(V, HeapType.BINARY, 0);
+
+            for (int v = 1; v <= V; v++) {
+                int d = Math.max(offset[v + 1] - offset[v], 1);
+                nbr[v] = new int[d];
+                wgt[v] = new int[d];
+                mid[v] = new int[d];
+            }
+            // Each undirected edge appears at both ends of the CSR arrays, so
+            // adding one direction per entry builds both lists
+            for (int v = 1; v <= V; v++) {
+                for (int k = offset[v]; k < offset[v + 1]; k++) {
+                    if (target[k] != v) {
+                        link(v, target[k], weight[k], 0);
                     }
+                }
+            }
+        }
+
+        ContractionHierarchy run(int E, long fingerprint) {
+            int[] priority = new int[V + 1];
+            BinaryHeap pq = new BinaryHeap(V, priority);
+            for (int v = 1; v <= V; v++) {
+                priority[v] = importance(v);
+                pq.insert(v);
+            }
+
+            // Lazy updates: a vertex whose importance has grown since it was
+            // queued goes back in rather than being contracted out of turn
+            int order = 0;
+            while (!pq.isEmpty()) {
+                int v = pq.remove();
+                priority[v] = importance(v);
+                if (!pq.isEmpty() && priority[v] > priority[pq.peek()]) {
+                    pq.insert(v);
+                    continue;
+                }
+                contract(v, false);
+                rank[v] = ++order;
+            }
 
-                    System.out.println("Parent Array:");
-                    for (int i = 1; i <= V; i++) {
-                        System.out.println(toChar(i) + " -> " + toChar(parent[i]));
+            // Packing each vertex's upward edges into CSR arrays
+            int[] upOff = new int[V + 2];
+            for (int v = 1; v <= V; v++) {
+                upOff[v + 1] = upOff[v] + upNbr[v].length;
+            }
+            int n = upOff[V + 1];
+            int[] upTarget = new int[n], upWeight = new int[n], upMidAll = new int[n];
+            for (int v = 1; v <= V; v++) {
+                System.arraycopy(upNbr[v], 0, upTarget, upOff[v], upNbr[v].length);
+                System.arraycopy(upWgt[v], 0, upWeight, upOff[v], upNbr[v].length);
+                System.arraycopy(upMid[v], 0, upMidAll, upOff[v], upNbr[v].length);
+            }
+            return new ContractionHierarchy(V, E, fingerprint, rank, upOff, upTarget, upWeight, upMidAll);
+        }
+
+        // Method to work out how much contracting v would cost now
+        private int importance(int v) {
+            return contract(v, true) - deg[v] + deleted[v];
+        }
+
+        // Method to find which shortcuts contracting v needs, adding them and
+        // removing v unless simulate is set; returns the number of shortcuts
+        private int contract(int v, boolean simulate) {
+            int shortcuts = 0;
+            int d = deg[v];
+            int[] vn = nbr[v], vw = wgt[v];
+
+            for (int i = 0; i < d - 1; i++) {
+                int u = vn[i];
+                long limit = 0;
+                for (int j = i + 1; j < d; j++) {
+                    limit = Math.max(limit, (long) vw[i] + vw[j]);
+                }
+
+                witness(u, v, limit);
+                for (int j = i + 1; j < d; j++) {
+                    int via = vw[i] + vw[j];
+                    if (ws.dist[vn[j]] > via) {
+                        shortcuts++;
+                        if (!simulate) {
+                            link(u, vn[j], via, v);
+                            link(vn[j], u, via, v);
+                        }
                     }
+                }
+            }
 
-                    System.out.println("\n");
+            if (!simulate) {
+                // v's remaining edges all lead to vertices contracted later
+                upNbr[v] = Arrays.copyOf(vn, d);
+                upWgt[v] = Arrays.copyOf(vw, d);
+                upMid[v] = Arrays.copyOf(mid[v], d);
+                for (int i = 0; i < d; i++) {
+                    unlink(vn[i], v);
+                    deleted[vn[i]]++;
                 }
+                deg[v] = 0;
             }
+            return shortcuts;
         }
 
-        // Displaying the shortest paths from the source vertex
-        System.out.println("\nDijkstra's SPT:");
-        for (int i = 1; i <= V; i++) {
-            if (i != s) {
-                System.out.println("Shortest path from " + toChar(s) + " to " + toChar(i) + " is " + dist[i]);
+        // Method to run Dijkstra from u around v, giving up past limit or
+        // after WITNESS_SETTLE_LIMIT vertices; any vertex it leaves at a
+        // distance above limit may need a shortcut
+        private void witness(int u, int v, long limit) {
+            ws.reset();
+            ws.reach(u, 0);
+            ws.heap.insert(u);
+            int settled = 0;
+
+            while (!ws.heap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                int x = ws.heap.remove();
+                if (ws.dist[x] > limit) {
+                    break;
+                }
+                ws.inTree[x] = true;
+                settled++;
+
+                for (int k = 0; k < deg[x]; k++) {
+                    int y = nbr[x][k];
+                    int nd = ws.dist[x] + wgt[x][k];
+                    if (y != v && !ws.inTree[y] && nd < ws.dist[y]) {
+                        ws.reach(y, nd);
+                        ws.heap.insertOrUpdate(y);
+                    }
+                }
+            }
+        }
+
+        // Method to add the edge u->w, keeping only the lighter of two
+        private void link(int u, int w, int weight, int via) {
+            for (int k = 0; k < deg[u]; k++) {
+                if (nbr[u][k] == w) {
+                    if (weight < wgt[u][k]) {
+                        wgt[u][k] = weight;
+                        mid[u][k] = via;
+                    }
+                    return;
+                }
+            }
+            if (deg[u] == nbr[u].length) {
+                int cap = 2 * deg[u];
+                nbr[u] = Arrays.copyOf(nbr[u], cap);
+                wgt[u] = Arrays.copyOf(wgt[u], cap);
+                mid[u] = Arrays.copyOf(mid[u], cap);
+            }
+            nbr[u][deg[u]] = w;
+            wgt[u][deg[u]] = weight;
+            mid[u][deg[u]++] = via;
+        }
+
+        // Method to remove the edge u->w by moving the last entry into its place
+        private void unlink(int u, int w) {
+            for (int k = 0; k < deg[u]; k++) {
+                if (nbr[u][k] == w) {
+                    int last = --deg[u];
+                    nbr[u][k] = nbr[u][last];
+                    wgt[u][k] = wgt[u][last];
+                    mid[u][k] = mid[u][last];
+                    return;
+                }
+            }
+        }
+    }
+}
+
+// Result of a point to point query: the distance from source to target
+// (Integer.MAX_VALUE if there is no path), the vertices on the path from
+// source to target inclusive, and how many vertices the search settled
+class Route {
+    public final int source, target;
+    public final int dist;
+    public final int[] path;
+    public final int settled;
+
+    public Route(int _source, int _target, int _dist, int[] _path, int _settled) {
+        source = _source;
+        target = _target;
+        dist = _dist;
+        path = _path;
+        settled = _settled;
+    }
+
+    // Method to build a route that runs from s to meet along fwd's parent
+    // links, then from meet to t along bwd's (bwd may be null when meet is t)
+    static Route from(int s, int t, SearchSpace fwd, SearchSpace bwd, int meet, int settled) {
+        if (meet == 0 || fwd.dist[meet] == Integer.MAX_VALUE) {
+            return new Route(s, t, Integer.MAX_VALUE, new int[0], settled);
+        }
+
+        int n = 1;
+        for (int v = meet; v != s; v = fwd.parent[v]) {
+            n++;
+        }
+        int half = n;
+        if (bwd != null) {
+            for (int v = meet; v != t; v = bwd.parent[v]) {
+                n++;
+            }
+        }
+
+        int[] path = new int[n];
+        int i = half;
+        for (int v = meet; i > 0; v = fwd.parent[v]) {
+            path[--i] = v;
+        }
+        i = half;
+        if (bwd != null) {
+            for (int v = meet; v != t;) {
+                v = bwd.parent[v];
+                path[i++] = v;
+            }
+        }
+
+        int d = fwd.dist[meet] + (bwd != null ? bwd.dist[meet] : 0);
+        return new Route(s, t, d, path, settled);
+    }
+}
+
+// Buffers for one Dijkstra search: the dist and parent arrays, the in-tree
+// flags and a heap keyed on dist. Every vertex given a distance is recorded,
+// so reset() only has to undo what the last search touched and the buffers
+// can be reused from search to search without clearing all V entries.
+// For A* the heap is keyed on a separate key[] array of dist plus estimate.
+class SearchSpace {
+    public final int[] dist; // Integer.MAX_VALUE until a vertex is reached
+    public final int[] parent;
+    public final boolean[] inTree;
+    public final int[] key; // Heap priorities, the dist array itself unless keyed
+    public final IndexedHeap heap;
+    private int[] touched; // Vertices whose entries differ from the initial state
+    private int nTouched;
+
+    public SearchSpace(int V, HeapType heapType, int maxWgt) {
+        this(V, heapType, maxWgt, false);
+    }
+
+    // Constructor where keyed asks for heap priorities separate from dist, and
+    // span bounds the gap between the smallest and largest queued key
+    public SearchSpace(int V, HeapType heapType, int span, boolean keyed) {
+        dist = new int[V + 1];
+        parent = new int[V + 1];
+        inTree = new boolean[V + 1];
+        touched = new int[V + 1];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        key = keyed ? new int[V + 1] : dist;
+        heap = heapType.create(V, key, span);
+    }
+
+    // Method to set v's distance, recording v if this is its first one
+    public void reach(int v, int d) {
+        if (dist[v] == Integer.MAX_VALUE) {
+            touched[nTouched++] = v;
+        }
+        dist[v] = d;
+    }
+
+    // Method to return the buffers to their initial state
+    public void reset() {
+        for (int i = 0; i < nTouched; i++) {
+            int v = touched[i];
+            dist[v] = Integer.MAX_VALUE;
+            parent[v] = 0;
+            inTree[v] = false;
+        }
+        nTouched = 0;
+        heap.clear();
+    }
+
+    // Method to return how many vertices the last search reached
+    public int reached() {
+        return nTouched;
+    }
+}
+
+// Definition of the BatchDijkstra class, which computes shortest path trees
+// from many sources against one loaded graph. A fixed pool of worker threads
+// shares the read-only graph; each worker keeps one SearchSpace and reuses it
+// for every source it takes, so a batch allocates per thread, not per source.
+class BatchDijkstra {
+    private GraphMatrix g;
+    private HeapType heapType;
+    private int threads;
+
+    public BatchDijkstra(GraphMatrix _g, HeapType _heapType, int _threads) {
+        g = _g;
+        heapType = _heapType;
+        threads = _threads;
+    }
+
+    // Method to run Dijkstra from every source, passing each tree to sink as
+    // soon as it is done. sink is called from the worker threads, so it must
+    // be thread safe, and the arrays it is given are reused once it returns:
+    // copy anything that has to be kept.
+    public void run(int[] sources, Consumer<ShortestPaths> sink) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicInteger next = new AtomicInteger(); // Index of the next source to take
+        List<Callable<Void>> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            workers.add(() -> {
+                SearchSpace ws = g.newSearchSpace(heapType);
+                for (int i = next.getAndIncrement(); i < sources.length; i = next.getAndIncrement()) {
+                    g.search(sources[i], ws, Trace.OFF);
+                    sink.accept(new ShortestPaths(sources[i], ws.dist, ws.parent));
+                    ws.reset();
+                }
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> f : pool.invokeAll(workers)) {
+                f.get();
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("batch Dijkstra failed: " + e.getCause(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
+
+// Definition of the DeltaStepping class, a parallel single source shortest
+// path search for graphs too big for one thread. Tentative distances are
+// grouped into buckets of width delta and each bucket is emptied by all the
+// threads at once: light edges (weight <= delta) can land back in the bucket
+// being emptied, so they are relaxed round after round until it stays empty;
+// heavy edges can only reach later buckets, so they are relaxed once per
+// vertex when the bucket is done. dist and parent are packed into one long
+// per vertex and lowered with compareAndSet, so a parent always matches its
+// distance. A small delta does little wasted work but many rounds; a large
+// one does the reverse, with delta >= maxWgt giving Bellman-Ford.
+class DeltaStepping {
+    private static final int GRAIN = 1024; // Vertices per task
+
+    private int V;
+    private int delta;
+    private int[] offset; // CSR offsets shared with the GraphMatrix
+    private Split split; // Edges reordered light first within each vertex
+
+    private AtomicLongArray state; // dist << 32 | parent
+    private int nBins; // Live buckets always fit in a window of this many
+    private int bucket; // Bucket being emptied
+    private List<Bins> allBins; // Every worker's buckets
+    private ThreadLocal<Bins> bins;
+
+    public DeltaStepping(int _V, int[] _offset, Split _split, int maxWgt) {
+        V = _V;
+        offset = _offset;
+        split = _split;
+        delta = split.delta;
+        nBins = maxWgt / delta + 2;
+    }
+
+    // Definition of the Split class, a copy of the graph's edges with each
+    // vertex's light edges first. It is only read by searches, so one serves
+    // every search with the same delta, and the graph's own arrays keep their
+    // order for anything else using them.
+    static class Split {
+        final int delta;
+        final int[] lightEnd; // Light edges of v are at offset[v] .. lightEnd[v] - 1
+        final int[] target, weight;
+
+        Split(int V, int[] offset, int[] _target, int[] _weight, int _delta) {
+            if (_delta < 1) {
+                throw new IllegalArgumentException("delta must be at least 1, got " + _delta);
+            }
+            delta = _delta;
+
+            // Splitting each vertex's edges into light then heavy
+            lightEnd = new int[V + 1];
+            target = new int[_target.length];
+            weight = new int[_weight.length];
+            for (int v = 1; v <= V; v++) {
+                int lo = offset[v], hi = offset[v + 1];
+                for (int k = offset[v]; k < offset[v + 1]; k++) {
+                    int i = (_weight[k] <= delta) ? lo++ : --hi;
+                    target[i] = _target[k];
+                    weight[i] = _weight[k];
+                }
+                lightEnd[v] = lo;
+            }
+        }
+    }
+
+    // Method to run the search from s using the threads of pool
+    public ShortestPaths run(int s, ForkJoinPool pool) {
+        state = new AtomicLongArray(V + 1);
+        for (int v = 1; v <= V; v++) {
+            state.set(v, (long) Integer.MAX_VALUE << 32);
+        }
+        allBins = Collections.synchronizedList(new ArrayList<>());
+        bins = ThreadLocal.withInitial(() -> {
+            Bins b = new Bins(nBins);
+            allBins.add(b);
+            return b;
+        });
+
+        state.set(s, 0L);
+        int[] frontier = { s };
+        int[] done = new int[16]; // Vertices taken out of the bucket
+        int[] doneIn = new int[V + 1]; // bucket + 1 for vertices already in done
+        bucket = 0;
+
+        while (true) {
+            // Emptying the bucket through light edges
+            int nDone = 0;
+            while (frontier.length > 0) {
+                pool.invoke(new RelaxTask(frontier, 0, frontier.length, true));
+                for (int v : frontier) {
+                    if (doneIn[v] != bucket + 1) {
+                        doneIn[v] = bucket + 1;
+                        if (nDone == done.length) {
+                            done = Arrays.copyOf(done, 2 * nDone);
+                        }
+                        done[nDone++] = v;
+                    }
+                }
+                frontier = drain(bucket);
+            }
+
+            // Heavy edges once for everything settled in it
+            pool.invoke(new RelaxTask(done, 0, nDone, false));
+
+            // Moving to the next bucket holding anything
+            int next = -1;
+            for (int k = 1; k < nBins && next < 0; k++) {
+                synchronized (allBins) {
+                    for (Bins b : allBins) {
+                        if (b.size[(bucket + k) % nBins] > 0) {
+                            next = bucket + k;
+                            break;
+                        }
+                    }
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            bucket = next;
+            frontier = drain(bucket);
+        }
+
+        int[] dist = new int[V + 1];
+        int[] parent = new int[V + 1];
+        for (int v = 1; v <= V; v++) {
+            long x = state.get(v);
+            dist[v] = (int) (x >>> 32);
+            parent[v] = (int) x;
+        }
+        return new ShortestPaths(s, dist, parent);
+    }
+
+    // Method to take everything the workers put in bucket b, dropping stale
+    // entries for vertices that have since moved to an earlier bucket
+    private int[] drain(int b) {
+        int slot = b % nBins;
+        int n = 0;
+        synchronized (allBins) {
+            for (Bins w : allBins) {
+                n += w.size[slot];
+            }
+            int[] out = new int[n];
+            n = 0;
+            for (Bins w : allBins) {
+                for (int i = 0; i < w.size[slot]; i++) {
+                    int v = w.item[slot][i];
+                    if ((int) (state.get(v) >>> 32) / delta == b) {
+                        out[n++] = v;
+                    }
+                }
+                w.size[slot] = 0;
+            }
+            return Arrays.copyOf(out, n);
+        }
+    }
+
+    // Method to lower u's distance to d through v if that is shorter,
+    // returning whether it was
+    private boolean relax(int u, int d, int v) {
+        long next = ((long) d << 32) | v;
+        for (long cur = state.get(u); (int) (cur >>> 32) > d; cur = state.get(u)) {
+            if (state.compareAndSet(u, cur, next)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // One worker's buckets, used as a ring of nBins growable lists
+    private static class Bins {
+        int[][] item;
+        int[] size;
+
+        Bins(int n) {
+            item = new int[n][];
+            size = new int[n];
+        }
+
+        void add(int slot, int v) {
+            if (item[slot] == null) {
+                item[slot] = new int[16];
+            } else if (size[slot] == item[slot].length) {
+                item[slot] = Arrays.copyOf(item[slot], 2 * size[slot]);
+            }
+            item[slot][size[slot]++] = v;
+        }
+    }
+
+    // Relaxing the light or heavy edges of vertices[lo, hi)
+    private class RelaxTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private int[] vertices;
+        private int lo, hi;
+        private boolean light;
+
+        RelaxTask(int[] _vertices, int _lo, int _hi, boolean _light) {
+            vertices = _vertices;
+            lo = _lo;
+            hi = _hi;
+            light = _light;
+        }
+
+        protected void compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new RelaxTask(vertices, lo, mid, light), new RelaxTask(vertices, mid, hi, light));
+                return;
+            }
+
+            Bins b = bins.get();
+            int[] lightEnd = split.lightEnd, target = split.target, weight = split.weight;
+            for (int i = lo; i < hi; i++) {
+                int v = vertices[i];
+                int d = (int) (state.get(v) >>> 32);
+                int first = light ? offset[v] : lightEnd[v];
+                int last = light ? lightEnd[v] : offset[v + 1];
+                for (int k = first; k < last; k++) {
+                    long nd = (long) d + weight[k];
+                    if (nd < Integer.MAX_VALUE && relax(target[k], (int) nd, v)) {
+                        b.add((int) (nd / delta % nBins), target[k]);
+                    }
+                }
             }
         }
     }
@@ -207,22 +1618,208 @@ class GraphMatrix {
 public class SPT {
     // Main method for execution
     public static void main(String[] args) throws IOException {
+        // e.g. --heap=bucket --trace=summary, --to=9 [--bidirectional or
+        // --coords=file or --landmarks=k for A*, or --ch] for one query,
+        // or --sources=1,5,9 (or all) --threads=8 for a batch, or
+        // --sssp=delta [--delta=k] --threads=8 for one parallel search, or
+        // --changes=file to replay weight changes against Dijkstra's tree;
+        // --dense keeps a V * V matrix for Dijkstra's algorithm on small graphs
+        Options opts = new Options(args);
+        HeapType heapType = HeapType.parse(opts.get("heap", "binary"));
+        Trace trace = Trace.parse(opts.get("trace", "step"));
+
         try (Scanner sc = new Scanner(System.in)) {
             String fname; // Filename for graph definition
             System.out.print("\nInput name of file you want to use : ");
             fname = sc.nextLine(); // Taking filename input from user
 
+            if (opts.has("sources")) {
+                GraphMatrix g = new GraphMatrix(fname, opts.has("dense"), trace);
+                batch(g, heapType, trace, opts);
+                return;
+            }
+
             System.out.print("\nEnter the number you want to start at: ");
             int s = sc.nextInt(); // Taking starting vertex input from user
 
-            GraphMatrix g = new GraphMatrix(fname); // Creating graph object from the input file
+            GraphMatrix g = new GraphMatrix(fname, opts.has("dense"), trace); // Creating graph object from the input file
 
-            g.displayAdjMatrix(); // Displaying the adjacency matrix
-            System.out.println();
+            if (trace.steps()) {
+                g.displayAdjMatrix(); // Displaying the adjacency matrix
+                System.out.println();
+            }
+
+            if (opts.has("to")) {
+                // Point to point query, e.g. --to=9 --bidirectional
+                int t = opts.getInt("to", s);
+                Route r;
+                if (opts.has("ch")) {
+                    r = ContractionHierarchy.loadOrBuild(g, fname).query(s, t, heapType);
+                } else if (opts.has("landmarks")) {
+                    Landmarks lm = Landmarks.loadOrBuild(g, fname, opts.getInt("landmarks", 8), heapType);
+                    r = g.shortestPathAStar(s, t, lm, heapType);
+                } else if (opts.has("coords")) {
+                    Heuristic h = g.euclidean(new Coordinates(opts.get("coords", "")));
+                    r = g.shortestPathAStar(s, t, h, heapType);
+                } else if (opts.has("bidirectional")) {
+                    r = g.shortestPathBidirectional(s, t, heapType);
+                } else {
+                    r = g.shortestPath(s, t, heapType);
+                }
+                showRoute(r, g.numVertices());
+                return;
+            }
+
+            if (opts.get("sssp", "dijkstra").equalsIgnoreCase("delta")) {
+                deltaStepping(g, s, trace, opts);
+                return;
+            }
+
+            ShortestPaths sp = g.Dijkstra(s, heapType); // Performing Dijkstra's algorithm
 
-            g.Dijkstra(s); // Performing Dijkstra's algorithm
+            if (opts.has("changes")) {
+                applyChanges(g, sp, opts.get("changes", ""), heapType, trace);
+            }
         } catch (IOException e) {
             System.err.println("Error: couldn't read file: " + e.getMessage());
         }
     }
+
+    // Method to print a point to point route, naming vertices the way the
+    // traces do
+    private static void showRoute(Route r, int V) {
+        String from = Trace.label(r.source, V), to = Trace.label(r.target, V);
+        if (r.dist == Integer.MAX_VALUE) {
+            System.out.println("\nNo path from " + from + " to " + to);
+        } else {
+            System.out.println("\nShortest path from " + from + " to " + to + " is " + r.dist);
+            StringJoiner route = new StringJoiner(", ", "[", "]");
+            for (int v : r.path) {
+                route.add(Trace.label(v, V));
+            }
+            System.out.println("Route: " + route);
+        }
+        System.out.println("Vertices settled: " + r.settled);
+    }
+
+    // Method to replay a file of "u v w" weight changes, repairing the tree
+    // after each one instead of running Dijkstra again
+    private static void applyChanges(GraphMatrix g, ShortestPaths sp, String changeFile, HeapType heapType,
+            Trace trace) throws IOException {
+        // The bucket queue cannot do repairs, so a binary heap stands in for it
+        SearchSpace ws = g.newRepairSpace(heapType == HeapType.BUCKET ? HeapType.BINARY : heapType);
+        int n = 0;
+        long settled = 0;
+        long start = System.nanoTime();
+
+        try (BufferedReader in = new BufferedReader(new FileReader(changeFile))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] parts = line.split(" +");
+                int u = Integer.parseInt(parts[0]);
+                int v = Integer.parseInt(parts[1]);
+                g.setWeight(u, v, Integer.parseInt(parts[2]));
+                int k = g.repair(sp, u, v, ws);
+                settled += k;
+                n++;
+                if (trace.steps()) {
+                    trace.out.println("Edge " + line + ": settled " + k + " vertices again");
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IOException(changeFile + ": bad change line: " + e.getMessage(), e);
+        }
+
+        if (trace.summary()) {
+            trace.out.printf("%n%d changes, %d vertices settled again in %.3f ms%n", n, settled,
+                    (System.nanoTime() - start) / 1e6);
+            int V = g.numVertices();
+            for (int v = 1; v <= V; v++) {
+                if (v != sp.source) {
+                    trace.out.println("Shortest path from " + Trace.label(sp.source, V) + " to "
+                            + Trace.label(v, V) + " is " + sp.dist[v]);
+                }
+            }
+        }
+    }
+
+    // Method to run one delta-stepping search from s and sum up the tree
+    private static void deltaStepping(GraphMatrix g, int s, Trace trace, Options opts) {
+        int delta = opts.getInt("delta", g.defaultDelta());
+        int threads = opts.getInt("threads", Runtime.getRuntime().availableProcessors());
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        ShortestPaths sp = g.DeltaStepping(s, delta, pool);
+        double secs = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        if (trace.summary()) {
+            int reached = 0;
+            long farthest = 0;
+            for (int v = 1; v <= g.numVertices(); v++) {
+                if (sp.dist[v] != Integer.MAX_VALUE) {
+                    reached++;
+                    farthest = Math.max(farthest, sp.dist[v]);
+                }
+            }
+            trace.out.println("\nDelta-stepping from " + s + ": reached " + reached + " vertices, farthest at " + farthest);
+            trace.out.printf("delta %d on %d threads in %.3f s%n", delta, threads, secs);
+        }
+    }
+
+    // Method to run Dijkstra from every vertex listed in --sources, printing
+    // one line per tree as the workers finish them
+    private static void batch(GraphMatrix g, HeapType heapType, Trace trace, Options opts) {
+        int V = g.numVertices();
+        int[] sources;
+        if (opts.get("sources", "").equalsIgnoreCase("all")) {
+            sources = new int[V];
+            for (int v = 1; v <= V; v++) {
+                sources[v - 1] = v;
+            }
+        } else {
+            String[] parts = opts.get("sources", "").split(",");
+            sources = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                sources[i] = Integer.parseInt(parts[i].trim());
+                if (sources[i] < 1 || sources[i] > V) {
+                    throw new IllegalArgumentException("source " + sources[i] + " is not a vertex 1.." + V);
+                }
+            }
+        }
+
+        int threads = opts.getInt("threads", Runtime.getRuntime().availableProcessors());
+        long start = System.nanoTime();
+        try {
+            new BatchDijkstra(g, heapType, threads).run(sources, sp -> {
+                if (trace.summary()) {
+                    int reached = 0;
+                    long farthest = 0;
+                    for (int v = 1; v <= V; v++) {
+                        if (sp.dist[v] != Integer.MAX_VALUE) {
+                            reached++;
+                            farthest = Math.max(farthest, sp.dist[v]);
+                        }
+                    }
+                    String line = "Tree from " + sp.source + ": reached " + reached + " vertices, farthest at " + farthest;
+                    synchronized (trace.out) {
+                        trace.out.println(line);
+                    }
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        if (trace.summary()) {
+            double secs = (System.nanoTime() - start) / 1e9;
+            trace.out.printf("%d trees on %d threads in %.3f s (%.1f trees/s)%n", sources.length, threads, secs,
+                    sources.length / secs);
+        }
+    }
 }
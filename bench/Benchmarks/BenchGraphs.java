@@ -0,0 +1,49 @@
+package Benchmarks;
+
+import java.io.*;
+import java.util.concurrent.ForkJoinPool;
+
+import Common.BinaryGraphFile;
+import Common.EdgeList;
+import Common.GraphGenerator;
+
+// Writes the synthetic graphs the benchmarks load, made by GraphGenerator and
+// saved in the binary format every program's loader reads, so each engine is
+// measured on the same input:
+//   random    - G(n, 4n), average degree 8
+//   grid      - a square 4-neighbour grid, like a road network
+//   rmat      - R-MAT power-law graph, average degree 16
+//   geometric - random geometric graph, average degree 8
+// Weights are 1..100.
+public final class BenchGraphs {
+    private static final int MAX_WEIGHT = 100;
+
+    private BenchGraphs() {
+    }
+
+    // Method to write a graph of about n vertices to a temporary file,
+    // returning its name; the same seed always gives the same graph
+    public static String write(String shape, int n, long seed) throws IOException {
+        File f = File.createTempFile("bench-" + shape + "-" + n + "-", ".bin");
+        f.deleteOnExit();
+        GraphGenerator gen = new GraphGenerator(seed, MAX_WEIGHT, ForkJoinPool.commonPool());
+
+        EdgeList g;
+        if (shape.equalsIgnoreCase("random")) {
+            g = gen.gnm(n, 4 * n);
+        } else if (shape.equalsIgnoreCase("grid")) {
+            int side = (int) Math.ceil(Math.sqrt(n));
+            g = gen.grid(side, side);
+        } else if (shape.equalsIgnoreCase("rmat")) {
+            int scale = 32 - Integer.numberOfLeadingZeros(Math.max(n - 1, 1));
+            g = gen.rmat(scale, 8 << scale);
+        } else if (shape.equalsIgnoreCase("geometric")) {
+            g = gen.geometric(n, 8);
+        } else {
+            throw new IllegalArgumentException("unknown graph shape '" + shape
+                    + "', expected random, grid, rmat or geometric");
+        }
+        BinaryGraphFile.write(g, f.getPath());
+        return f.getPath();
+    }
+}
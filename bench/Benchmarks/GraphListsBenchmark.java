@@ -0,0 +1,84 @@
+package Benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import Common.HeapType;
+import Common.Trace;
+
+// Prim's MST and the depth and breadth first traversals of GraphLists. Graph
+// lives in the default package, which no other package can import, so it is
+// reached through method handles looked up once per trial; the handle call
+// costs nanoseconds against traversals of the whole graph.
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphListsBenchmark {
+    @State(Scope.Benchmark)
+    public static class Loaded {
+        @Param({ "random", "grid", "rmat", "geometric" })
+        public String shape;
+
+        @Param({ "10000", "100000" })
+        public int size;
+
+        Object graph;
+        MethodHandle prim, df, bf;
+
+        @Setup(Level.Trial)
+        public void load() throws Exception {
+            Class<?> c = Class.forName("Graph");
+            Constructor<?> ctor = c.getDeclaredConstructor(String.class, Trace.class);
+            ctor.setAccessible(true);
+            graph = ctor.newInstance(BenchGraphs.write(shape, size, 42), Trace.OFF);
+
+            prim = handle(c, "MST_Prim", int.class, HeapType.class);
+            df = handle(c, "DF", int.class);
+            bf = handle(c, "BF", int.class);
+        }
+
+        // Method to look up a method of Graph as a handle taking an Object
+        private MethodHandle handle(Class<?> c, String name, Class<?>... params) throws Exception {
+            Method m = c.getDeclaredMethod(name, params);
+            m.setAccessible(true);
+            MethodHandle h = MethodHandles.lookup().unreflect(m);
+            return h.asType(h.type().changeParameterType(0, Object.class));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Heap {
+        @Param({ "binary", "quad", "pairing", "bucket" })
+        public String heap;
+
+        HeapType heapType;
+
+        @Setup(Level.Trial)
+        public void parse() {
+            heapType = HeapType.parse(heap);
+        }
+    }
+
+    @Benchmark
+    public int[] prim(Loaded g, Heap h) throws Throwable {
+        return (int[]) g.prim.invokeExact(g.graph, 1, h.heapType);
+    }
+
+    @Benchmark
+    public int[] depthFirst(Loaded g) throws Throwable {
+        return (int[]) g.df.invokeExact(g.graph, 1);
+    }
+
+    @Benchmark
+    public int[] breadthFirst(Loaded g) throws Throwable {
+        return (int[]) g.bf.invokeExact(g.graph, 1);
+    }
+}
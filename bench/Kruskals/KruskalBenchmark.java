@@ -0,0 +1,41 @@
+package Kruskals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import Benchmarks.BenchGraphs;
+import Common.Trace;
+
+// Kruskal's MST in each of its edge orderings; it sits in package Kruskals to
+// reach Graph directly.
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KruskalBenchmark {
+    @Param({ "random", "grid", "rmat", "geometric" })
+    public String shape;
+
+    @Param({ "10000", "100000" })
+    public int size;
+
+    @Param({ "heap", "sort", "filter" })
+    public String mode;
+
+    private Graph g;
+    private KruskalMode kruskalMode;
+
+    @Setup(Level.Trial)
+    public void load() throws Exception {
+        g = new Graph(BenchGraphs.write(shape, size, 42), Trace.OFF);
+        kruskalMode = KruskalMode.parse(mode);
+    }
+
+    @Benchmark
+    public Object kruskal() {
+        return g.MST_Kruskal(kruskalMode);
+    }
+}
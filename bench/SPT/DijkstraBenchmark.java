@@ -0,0 +1,42 @@
+package SPT;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import Benchmarks.BenchGraphs;
+import Common.HeapType;
+import Common.Trace;
+
+// Dijkstra's algorithm from vertex 1 with each priority queue; it sits in
+// package SPT to reach GraphMatrix directly.
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DijkstraBenchmark {
+    @Param({ "random", "grid", "rmat", "geometric" })
+    public String shape;
+
+    @Param({ "10000", "100000" })
+    public int size;
+
+    @Param({ "binary", "quad", "pairing", "bucket" })
+    public String heap;
+
+    private GraphMatrix g;
+    private HeapType heapType;
+
+    @Setup(Level.Trial)
+    public void load() throws Exception {
+        g = new GraphMatrix(BenchGraphs.write(shape, size, 42), false, Trace.OFF);
+        heapType = HeapType.parse(heap);
+    }
+
+    @Benchmark
+    public ShortestPaths dijkstra() {
+        return g.Dijkstra(1, heapType);
+    }
+}